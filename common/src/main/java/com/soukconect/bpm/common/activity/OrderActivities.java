@@ -1,19 +1,38 @@
 package com.soukconect.bpm.common.activity;
 
 import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.dto.InventoryReservation;
+import com.soukconect.bpm.common.dto.OrderLine;
+import com.soukconect.bpm.common.dto.OrderSnapshot;
 import com.soukconect.bpm.common.dto.OrderWorkflowInput;
 import com.soukconect.bpm.common.dto.PaymentResult;
+import com.soukconect.bpm.common.dto.VendorNotificationResult;
 import io.temporal.activity.ActivityInterface;
 import io.temporal.activity.ActivityMethod;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * Activities for OrderWorkflow - matches workflow-specifications.md
  */
 @ActivityInterface
 public interface OrderActivities {
 
+    /**
+     * Create the order in order-service. The returned snapshot (lines, amounts) is
+     * carried through the workflow so later activities do not fetch the order again.
+     */
     @ActivityMethod
-    Long createOrder(CreateOrderRequest request);
+    OrderSnapshot createOrder(CreateOrderRequest request);
+
+    /**
+     * Fill in the vendor of every line (cached product to vendor lookup, one batch call for misses).
+     * Fails if any line has no vendor.
+     * Timeout: 30s, Retry: 3x
+     */
+    @ActivityMethod
+    OrderSnapshot resolveVendors(OrderSnapshot order);
 
     // ============== VALIDATION ==============
 
@@ -37,31 +56,45 @@ public interface OrderActivities {
      * Refund payment (compensation).
      */
     @ActivityMethod
-    void refundPayment(Long orderId, Long paymentId, String transactionId);
+    void refundPayment(Long orderId, Long paymentId, String transactionId, BigDecimal amount);
 
     // ============== INVENTORY ==============
 
     /**
-     * Reserve items from vendor inventory.
-     * Timeout: 30s, Retry: 3x
+     * Reserve items from vendor inventory in chunks (batch call or per item), heartbeating
+     * progress after each chunk and each per-item call; a retry resumes after the last
+     * completed call.
+     * Lines that could not be reserved are returned as failed rather than thrown, lines of a
+     * batch that got no answer as unconfirmed.
+     * Timeout: 10m, Heartbeat: 20s, Retry: 5x
+     */
+    @ActivityMethod
+    InventoryReservation reserveInventory(OrderWorkflowInput input);
+
+    /**
+     * Resolve unconfirmed lines of reserveInventory (compensation): resends their batches under
+     * the original idempotency keys, which returns the first outcome if it was applied or
+     * applies it now. Returns the lines that are reserved, to be released.
      */
     @ActivityMethod
-    void reserveInventory(OrderWorkflowInput input);
+    List<OrderLine> confirmReservation(Long orderId, List<OrderLine> lines);
 
     /**
-     * Release reserved inventory (compensation).
+     * Release reserved inventory (compensation). Only the given lines are released;
+     * chunked and resumable like reserveInventory.
      */
     @ActivityMethod
-    void releaseInventory(OrderWorkflowInput input);
+    void releaseInventory(Long orderId, List<OrderLine> lines);
 
     // ============== VENDOR ==============
 
     /**
-     * Send order notification to vendor(s).
+     * Send order notification to all vendors concurrently.
+     * Returns which vendors were notified; per-vendor failures do not fail the activity.
      * Timeout: 30s, Retry: 5x
      */
     @ActivityMethod
-    void notifyVendors(OrderWorkflowInput input);
+    VendorNotificationResult notifyVendors(OrderWorkflowInput input);
 
     /**
      * Notify vendor of order cancellation (compensation).
@@ -0,0 +1,23 @@
+package com.soukconect.bpm.common.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of reserveInventory. {@code reserved} lines are released on compensation;
+ * {@code unconfirmed} lines were sent in a batch that got no answer, so they may or may not
+ * be reserved, and are resolved through confirmReservation before being released.
+ */
+public record InventoryReservation(
+        List<OrderLine> reserved,
+        List<OrderLine> failed,
+        List<OrderLine> unconfirmed) {
+
+    public InventoryReservation {
+        // Absent from results recorded before it was added
+        unconfirmed = unconfirmed != null ? unconfirmed : List.of();
+    }
+
+    public boolean hasFailures() {
+        return !failed.isEmpty() || !unconfirmed.isEmpty();
+    }
+}
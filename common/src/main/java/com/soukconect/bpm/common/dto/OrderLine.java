@@ -0,0 +1,22 @@
+package com.soukconect.bpm.common.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of an order as carried through the workflow.
+ * vendorId is null until vendors have been resolved.
+ */
+public record OrderLine(
+        Long productId,
+        Integer quantity,
+        BigDecimal unitPrice,
+        Long vendorId) {
+
+    public OrderLine withVendor(Long vendorId) {
+        return new OrderLine(productId, quantity, unitPrice, vendorId);
+    }
+
+    public static OrderLine from(OrderItemDto item) {
+        return new OrderLine(item.productId(), item.quantity(), item.unitPrice(), null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.soukconect.bpm.common.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact projection of the order as created by order-service.
+ * Returned by createOrder and carried in the workflow so later activities
+ * do not need to fetch the order again.
+ */
+public record OrderSnapshot(
+        Long orderId,
+        Long customerId,
+        BigDecimal totalAmount,
+        List<OrderLine> items) {
+
+    public static OrderSnapshot from(OrderDto order) {
+        List<OrderLine> lines = order.items() != null
+                ? order.items().stream().map(OrderLine::from).toList()
+                : List.of();
+        return new OrderSnapshot(order.id(), order.customerId(), order.totalAmount(), lines);
+    }
+
+    /**
+     * Distinct vendors of the resolved lines.
+     */
+    public List<Long> vendorIds() {
+        return items.stream().map(OrderLine::vendorId).filter(Objects::nonNull).distinct().toList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.soukconect.bpm.common.dto;
+
+import com.soukconect.bpm.common.workflow.WorkflowTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact order timeline, as kept in workflow state and returned by the timeline query.
+ *
+ * Each entry is one packed int (event and status ordinals, index into the details pool) and
+ * one epoch-millis timestamp; details are stored once in the pool. At most maxEntries entries
+ * are kept: older ones are folded into a summary (count and time range). Immutable, append
+ * returns a new timeline. {@link #toEvents()} expands it for API responses.
+ */
+public record OrderTimeline(
+        int maxEntries,
+        int[] entries,
+        long[] timestamps,
+        List<String> details,
+        int summarizedCount,
+        long summarizedFromMillis,
+        long summarizedToMillis) {
+
+    /** Event name of the summary entry in {@link #toEvents()}. */
+    public static final String SUMMARY_EVENT = "EARLIER_EVENTS_SUMMARIZED";
+
+    private static final TimelineEventType[] EVENTS = TimelineEventType.values();
+    private static final TimelineStatus[] STATUSES = TimelineStatus.values();
+    private static final int DETAIL_MASK = 0xFFFF;
+
+    public static OrderTimeline empty(int maxEntries) {
+        int cap = Math.min(Math.max(1, maxEntries), DETAIL_MASK);
+        return new OrderTimeline(cap, new int[0], new long[0], List.of(), 0, 0, 0);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Entries appended so far, summarized ones included.
+     */
+    public int totalCount() {
+        return summarizedCount + entries.length;
+    }
+
+    public OrderTimeline append(TimelineEventType event, TimelineStatus status, long timestampMillis,
+                                String detail) {
+        int drop = Math.max(0, entries.length + 1 - maxEntries);
+        int[] keptEntries = Arrays.copyOfRange(entries, drop, entries.length + 1);
+        long[] keptTimestamps = Arrays.copyOfRange(timestamps, drop, timestamps.length + 1);
+
+        List<String> pool = drop > 0 ? prunePool(keptEntries) : details;
+        int detailRef = 0;
+        if (detail != null) {
+            int index = pool.indexOf(detail);
+            if (index < 0) {
+                List<String> grown = new ArrayList<>(pool);
+                grown.add(detail);
+                pool = List.copyOf(grown);
+                index = pool.size() - 1;
+            }
+            detailRef = index + 1;
+        }
+        keptEntries[keptEntries.length - 1] = event.ordinal() << 24 | status.ordinal() << 16 | detailRef;
+        keptTimestamps[keptTimestamps.length - 1] = timestampMillis;
+
+        if (drop == 0) {
+            return new OrderTimeline(maxEntries, keptEntries, keptTimestamps, pool,
+                    summarizedCount, summarizedFromMillis, summarizedToMillis);
+        }
+        return new OrderTimeline(maxEntries, keptEntries, keptTimestamps, pool,
+                summarizedCount + drop,
+                summarizedCount > 0 ? summarizedFromMillis : timestamps[0],
+                timestamps[drop - 1]);
+    }
+
+    /**
+     * Append an event published as a {@link TimelineEvent} (read models).
+     */
+    public OrderTimeline append(TimelineEvent event) {
+        return append(TimelineEventType.valueOf(event.event()), TimelineStatus.valueOf(event.status()),
+                WorkflowTime.toEpochMillis(event.timestamp()), event.details());
+    }
+
+    public TimelineEvent event(int index) {
+        int entry = entries[index];
+        int detailRef = entry & DETAIL_MASK;
+        return new TimelineEvent(
+                EVENTS[entry >>> 24].name(),
+                STATUSES[(entry >>> 16) & 0xFF].name(),
+                WorkflowTime.toLocalDateTime(timestamps[index]),
+                detailRef > 0 ? details.get(detailRef - 1) : null);
+    }
+
+    /**
+     * The timeline as events, led by a summary entry when older entries were folded.
+     */
+    public List<TimelineEvent> toEvents() {
+        List<TimelineEvent> events = new ArrayList<>(entries.length + 1);
+        if (summarizedCount > 0) {
+            events.add(new TimelineEvent(SUMMARY_EVENT, TimelineStatus.COMPLETED.name(),
+                    WorkflowTime.toLocalDateTime(summarizedFromMillis),
+                    summarizedCount + " events until " + WorkflowTime.toLocalDateTime(summarizedToMillis)));
+        }
+        for (int i = 0; i < entries.length; i++) {
+            events.add(event(i));
+        }
+        return events;
+    }
+
+    /**
+     * Drops details no kept entry refers to, renumbering the references in place.
+     */
+    private List<String> prunePool(int[] keptEntries) {
+        if (details.isEmpty()) {
+            return details;
+        }
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < keptEntries.length - 1; i++) {
+            int detailRef = keptEntries[i] & DETAIL_MASK;
+            if (detailRef > 0) {
+                String detail = details.get(detailRef - 1);
+                int index = pool.indexOf(detail);
+                if (index < 0) {
+                    pool.add(detail);
+                    index = pool.size() - 1;
+                }
+                keptEntries[i] = (keptEntries[i] & ~DETAIL_MASK) | (index + 1);
+            }
+        }
+        return List.copyOf(pool);
+    }
+}
@@ -20,7 +20,8 @@ public record OrderWorkflowInput(
                 DeliveryAddress address,
                 LocalDate requestedDeliveryDate,
                 TimeSlot deliverySlot,
-                String notes) {
+                String notes,
+                List<OrderLine> items) {
         public record DeliveryAddress(
                         Long addressId,
                         String street,
@@ -0,0 +1,37 @@
+package com.soukconect.bpm.common.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State an OrderWorkflow run hands over when it continues as new during delivery:
+ * everything the rest of the workflow and its compensations still need.
+ */
+public record OrderWorkflowState(
+        OrderWorkflowInput input,
+        OrderWorkflowStatus status,
+        OrderTimeline timeline,
+        LocalDateTime estimatedDeliveryTime,
+        List<String> issues,
+        Compensations compensations,
+        boolean deliveryPickedUp,
+        boolean deliveryCompleted,
+        String deliveryProofUrl,
+        String deliverySignature,
+        boolean cancelRequested,
+        String cancellationReason,
+        boolean refundRequested,
+        long deliveryDeadlineMillis,
+        int continuations) {
+
+    /**
+     * What the saga has to undo, by step (null / empty when the step did not run).
+     */
+    public record Compensations(
+            Long paymentId,
+            String paymentTransactionId,
+            List<OrderLine> reservedLines,
+            List<Long> notifiedVendorIds,
+            Long deliveryPartnerId) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.soukconect.bpm.common.dto;
+
+/**
+ * States of the order workflow. Serialized by name, so queries, progress events and API
+ * responses carry the same strings as before.
+ *
+ * Allowed transitions are precomputed into one bit mask per state, making
+ * {@link #canTransitionTo(OrderWorkflowStatus)} a single bit test. Every non-final state may
+ * move to FAILED or CANCELLED; COMPLETED, FAILED and CANCELLED are final.
+ */
+public enum OrderWorkflowStatus {
+    CREATED,
+    /** Order being created in order-service and its vendors resolved. */
+    CREATING,
+    PAYMENT_PROCESSING,
+    PAYMENT_FAILED,
+    INVENTORY_RESERVED,
+    AWAITING_VENDOR_CONFIRMATION,
+    VENDOR_PREPARING,
+    READY_FOR_PICKUP,
+    DELIVERY_ASSIGNED,
+    OUT_FOR_DELIVERY,
+    DELIVERED,
+    COMPLETED(true),
+    FAILED(true),
+    CANCELLED(true);
+
+    private final boolean isFinal;
+    private long allowedNext;
+
+    static {
+        CREATED.allow(CREATING);
+        CREATING.allow(PAYMENT_PROCESSING);
+        PAYMENT_PROCESSING.allow(PAYMENT_FAILED, INVENTORY_RESERVED);
+        INVENTORY_RESERVED.allow(AWAITING_VENDOR_CONFIRMATION);
+        AWAITING_VENDOR_CONFIRMATION.allow(VENDOR_PREPARING);
+        VENDOR_PREPARING.allow(READY_FOR_PICKUP);
+        READY_FOR_PICKUP.allow(DELIVERY_ASSIGNED);
+        DELIVERY_ASSIGNED.allow(OUT_FOR_DELIVERY);
+        OUT_FOR_DELIVERY.allow(DELIVERED);
+        DELIVERED.allow(COMPLETED);
+        for (OrderWorkflowStatus status : values()) {
+            if (!status.isFinal) {
+                status.allow(FAILED, CANCELLED);
+            }
+        }
+    }
+
+    OrderWorkflowStatus() {
+        this(false);
+    }
+
+    OrderWorkflowStatus(boolean isFinal) {
+        this.isFinal = isFinal;
+    }
+
+    public boolean isFinal() {
+        return isFinal;
+    }
+
+    public boolean canTransitionTo(OrderWorkflowStatus next) {
+        return (allowedNext & (1L << next.ordinal())) != 0;
+    }
+
+    private void allow(OrderWorkflowStatus... next) {
+        for (OrderWorkflowStatus status : next) {
+            allowedNext |= 1L << status.ordinal();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.soukconect.bpm.common.dto;
+
+/**
+ * Events of the order workflow timeline. {@link OrderTimeline} stores them by ordinal,
+ * so new constants go at the end.
+ */
+public enum TimelineEventType {
+    WORKFLOW_STARTED,
+    ORDER_CREATED,
+    PAYMENT_PROCESSED,
+    PAYMENT_FAILED,
+    INVENTORY_RESERVED,
+    INVENTORY_UNAVAILABLE,
+    VENDORS_NOTIFIED,
+    VENDOR_NOTIFICATION_FAILED,
+    VENDOR_CONFIRMED,
+    VENDOR_REJECTED,
+    VENDOR_TIMED_OUT,
+    VENDOR_CANCELLED,
+    ORDER_READY,
+    DELIVERY_ASSIGNED,
+    DELIVERY_PICKED_UP,
+    DELIVERED,
+    WORKFLOW_COMPLETED,
+    WORKFLOW_CANCELLED,
+    WORKFLOW_FAILED
+}
@@ -0,0 +1,10 @@
+package com.soukconect.bpm.common.dto;
+
+/**
+ * Status of a timeline event. Stored by ordinal in {@link OrderTimeline}.
+ */
+public enum TimelineStatus {
+    COMPLETED,
+    IN_PROGRESS,
+    FAILED
+}
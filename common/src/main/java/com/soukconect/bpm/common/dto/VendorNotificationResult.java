@@ -0,0 +1,11 @@
+package com.soukconect.bpm.common.dto;
+
+import java.util.List;
+
+/**
+ * Per-vendor outcome of notifyVendors. Only {@code notified} vendors get cancellation notices.
+ */
+public record VendorNotificationResult(
+        List<Long> notified,
+        List<Long> failed) {
+}
@@ -0,0 +1,13 @@
+package com.soukconect.bpm.common.dto;
+
+import java.util.List;
+
+/**
+ * Input of VendorOrderWorkflow: the lines of one vendor and its confirmation deadline.
+ */
+public record VendorOrderInput(
+        Long orderId,
+        Long vendorId,
+        List<OrderLine> lines,
+        long confirmationTimeoutSeconds) {
+}
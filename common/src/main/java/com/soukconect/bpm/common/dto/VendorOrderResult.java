@@ -0,0 +1,19 @@
+package com.soukconect.bpm.common.dto;
+
+/**
+ * Outcome of VendorOrderWorkflow.
+ */
+public record VendorOrderResult(
+        Long vendorId,
+        Outcome outcome,
+        Integer prepTimeMinutes,
+        String notes) {
+
+    public enum Outcome {
+        READY, REJECTED, TIMED_OUT, CANCELLED
+    }
+
+    public boolean ready() {
+        return outcome == Outcome.READY;
+    }
+}
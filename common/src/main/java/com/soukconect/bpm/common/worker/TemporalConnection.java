@@ -0,0 +1,105 @@
+package com.soukconect.bpm.common.worker;
+
+import io.grpc.ManagedChannelBuilder;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * gRPC connection settings for the Temporal frontend. Each worker binds it from temporal.server.*
+ * and creates one shared {@link WorkflowServiceStubs} from it.
+ *
+ * Unset (null) values keep the SDK default. Stubs connect lazily, on the first call.
+ */
+@Data
+public class TemporalConnection {
+
+    /** Frontend host:port. */
+    private String address = "localhost:7233";
+    private String namespace = "default";
+    private boolean enableHttps = false;
+
+    /** Max size of a single response (large histories, query results). */
+    private Integer maxInboundMessageSizeMb;
+
+    private KeepAlive keepAlive = new KeepAlive();
+
+    /** Timeout of regular RPCs (start, signal, describe, ...). */
+    private Integer rpcTimeoutSeconds;
+    /** Timeout of long polls (task polling, getResult). */
+    private Integer rpcLongPollTimeoutSeconds;
+    private Integer rpcQueryTimeoutSeconds;
+
+    /**
+     * Give workers their own gRPC channel, so long polls and task completions
+     * do not share a connection with API traffic (starts, signals, queries).
+     */
+    private boolean dedicatedWorkerChannel = false;
+
+    @Data
+    public static class KeepAlive {
+        private boolean enabled = true;
+        private Integer timeSeconds;
+        private Integer timeoutSeconds;
+        /** Ping even without active calls, so idle channels notice dead connections. */
+        private Boolean permitWithoutStream;
+    }
+
+    public WorkflowServiceStubsOptions toServiceStubsOptions() {
+        WorkflowServiceStubsOptions.Builder builder = WorkflowServiceStubsOptions.newBuilder()
+                .setTarget(address)
+                .setEnableHttps(enableHttps)
+                .setEnableKeepAlive(keepAlive.enabled);
+
+        if (keepAlive.timeSeconds != null) {
+            builder.setKeepAliveTime(Duration.ofSeconds(keepAlive.timeSeconds));
+        }
+        if (keepAlive.timeoutSeconds != null) {
+            builder.setKeepAliveTimeout(Duration.ofSeconds(keepAlive.timeoutSeconds));
+        }
+        if (keepAlive.permitWithoutStream != null) {
+            builder.setKeepAlivePermitWithoutStream(keepAlive.permitWithoutStream);
+        }
+        if (rpcTimeoutSeconds != null) {
+            builder.setRpcTimeout(Duration.ofSeconds(rpcTimeoutSeconds));
+        }
+        if (rpcLongPollTimeoutSeconds != null) {
+            builder.setRpcLongPollTimeout(Duration.ofSeconds(rpcLongPollTimeoutSeconds));
+        }
+        if (rpcQueryTimeoutSeconds != null) {
+            builder.setRpcQueryTimeout(Duration.ofSeconds(rpcQueryTimeoutSeconds));
+        }
+        if (maxInboundMessageSizeMb != null) {
+            int maxBytes = maxInboundMessageSizeMb * 1024 * 1024;
+            builder.setChannelInitializer((ManagedChannelBuilder<?> channel) -> channel.maxInboundMessageSize(maxBytes));
+        }
+        return builder.validateAndBuildWithDefaults();
+    }
+
+    public WorkflowServiceStubs newServiceStubs() {
+        return WorkflowServiceStubs.newServiceStubs(toServiceStubsOptions());
+    }
+
+    public WorkflowClient newWorkflowClient(WorkflowServiceStubs serviceStubs) {
+        return WorkflowClient.newInstance(serviceStubs,
+                WorkflowClientOptions.newBuilder().setNamespace(namespace).build());
+    }
+
+    /**
+     * Effective values, for startup logging.
+     */
+    public static String describe(WorkflowServiceStubsOptions options) {
+        return "target=" + options.getTarget()
+                + ", keepAlive=" + options.getEnableKeepAlive()
+                + " (time=" + options.getKeepAliveTime()
+                + ", timeout=" + options.getKeepAliveTimeout()
+                + ", permitWithoutStream=" + options.getKeepAlivePermitWithoutStream()
+                + "), rpcTimeout=" + options.getRpcTimeout()
+                + ", rpcLongPollTimeout=" + options.getRpcLongPollTimeout()
+                + ", rpcQueryTimeout=" + options.getRpcQueryTimeout();
+    }
+}
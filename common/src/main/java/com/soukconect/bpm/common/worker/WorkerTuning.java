@@ -0,0 +1,161 @@
+package com.soukconect.bpm.common.worker;
+
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning knobs for Temporal workers, mapped onto {@link WorkerFactoryOptions} and
+ * per-task-queue {@link WorkerOptions}. Each worker binds it from temporal.worker.*.
+ *
+ * Unset (null) values keep the SDK default. Per-queue settings override {@link #defaults}.
+ */
+@Data
+public class WorkerTuning {
+
+    private FactorySettings factory = new FactorySettings();
+    private VirtualThreadSettings virtualThreads = new VirtualThreadSettings();
+    private QueueSettings defaults = new QueueSettings();
+    private Map<String, QueueSettings> taskQueues = new HashMap<>();
+
+    @Data
+    public static class FactorySettings {
+        /** Sticky workflow cache size (cached workflow executions). */
+        private Integer workflowCacheSize;
+        /** Max threads across all cached workflow executions. */
+        private Integer maxWorkflowThreadCount;
+    }
+
+    @Data
+    public static class VirtualThreadSettings {
+        /** Run activities on virtual threads (Java 21+). */
+        private boolean enabled = false;
+        /**
+         * Activity slots of every queue when virtual threads are on; replaces the queues'
+         * maxConcurrentActivityExecutions, which size platform thread pools.
+         */
+        private int maxConcurrentActivities = 1000;
+    }
+
+    @Data
+    public static class QueueSettings {
+        /** Activity slots on platform threads; not used when virtual threads are active. */
+        private Integer maxConcurrentActivityExecutions;
+        private Integer maxConcurrentWorkflowTaskExecutions;
+        private Integer maxConcurrentLocalActivityExecutions;
+        private Integer activityPollers;
+        private Integer workflowPollers;
+        /** Per-worker activity rate limit. */
+        private Double maxWorkerActivitiesPerSecond;
+        /** Rate limit across all workers of the task queue (enforced by the server). */
+        private Double maxTaskQueueActivitiesPerSecond;
+        private Integer stickyQueueScheduleToStartTimeoutSeconds;
+        /**
+         * Upper bound on how long activity heartbeats are buffered before being sent
+         * (the SDK otherwise waits up to 80% of the heartbeat timeout). Lower values lose
+         * less progress when a worker dies, at the cost of more heartbeat RPCs.
+         */
+        private Integer maxHeartbeatThrottleIntervalSeconds;
+
+        QueueSettings overriddenBy(QueueSettings o) {
+            QueueSettings merged = new QueueSettings();
+            merged.maxConcurrentActivityExecutions = pick(o.maxConcurrentActivityExecutions, maxConcurrentActivityExecutions);
+            merged.maxConcurrentWorkflowTaskExecutions = pick(o.maxConcurrentWorkflowTaskExecutions, maxConcurrentWorkflowTaskExecutions);
+            merged.maxConcurrentLocalActivityExecutions = pick(o.maxConcurrentLocalActivityExecutions, maxConcurrentLocalActivityExecutions);
+            merged.activityPollers = pick(o.activityPollers, activityPollers);
+            merged.workflowPollers = pick(o.workflowPollers, workflowPollers);
+            merged.maxWorkerActivitiesPerSecond = pick(o.maxWorkerActivitiesPerSecond, maxWorkerActivitiesPerSecond);
+            merged.maxTaskQueueActivitiesPerSecond = pick(o.maxTaskQueueActivitiesPerSecond, maxTaskQueueActivitiesPerSecond);
+            merged.stickyQueueScheduleToStartTimeoutSeconds = pick(o.stickyQueueScheduleToStartTimeoutSeconds, stickyQueueScheduleToStartTimeoutSeconds);
+            merged.maxHeartbeatThrottleIntervalSeconds = pick(o.maxHeartbeatThrottleIntervalSeconds, maxHeartbeatThrottleIntervalSeconds);
+            return merged;
+        }
+
+        private static <T> T pick(T override, T fallback) {
+            return override != null ? override : fallback;
+        }
+    }
+
+    public WorkerFactoryOptions toWorkerFactoryOptions() {
+        WorkerFactoryOptions.Builder builder = WorkerFactoryOptions.newBuilder();
+        if (factory.workflowCacheSize != null) {
+            builder.setWorkflowCacheSize(factory.workflowCacheSize);
+        }
+        if (factory.maxWorkflowThreadCount != null) {
+            builder.setMaxWorkflowThreadCount(factory.maxWorkflowThreadCount);
+        }
+        return builder.validateAndBuildWithDefaults();
+    }
+
+    public WorkerOptions toWorkerOptions(String taskQueue) {
+        QueueSettings q = defaults.overriddenBy(taskQueues.getOrDefault(taskQueue, new QueueSettings()));
+        WorkerOptions.Builder builder = WorkerOptions.newBuilder();
+
+        if (isVirtualThreadsActive()) {
+            builder.setUsingVirtualThreadsOnActivityWorker(true);
+            builder.setMaxConcurrentActivityExecutionSize(virtualThreads.maxConcurrentActivities);
+        } else if (q.maxConcurrentActivityExecutions != null) {
+            builder.setMaxConcurrentActivityExecutionSize(q.maxConcurrentActivityExecutions);
+        }
+        if (q.maxConcurrentWorkflowTaskExecutions != null) {
+            builder.setMaxConcurrentWorkflowTaskExecutionSize(q.maxConcurrentWorkflowTaskExecutions);
+        }
+        if (q.maxConcurrentLocalActivityExecutions != null) {
+            builder.setMaxConcurrentLocalActivityExecutionSize(q.maxConcurrentLocalActivityExecutions);
+        }
+        if (q.activityPollers != null) {
+            builder.setMaxConcurrentActivityTaskPollers(q.activityPollers);
+        }
+        if (q.workflowPollers != null) {
+            builder.setMaxConcurrentWorkflowTaskPollers(q.workflowPollers);
+        }
+        if (q.maxWorkerActivitiesPerSecond != null) {
+            builder.setMaxWorkerActivitiesPerSecond(q.maxWorkerActivitiesPerSecond);
+        }
+        if (q.maxTaskQueueActivitiesPerSecond != null) {
+            builder.setMaxTaskQueueActivitiesPerSecond(q.maxTaskQueueActivitiesPerSecond);
+        }
+        if (q.stickyQueueScheduleToStartTimeoutSeconds != null) {
+            builder.setStickyQueueScheduleToStartTimeout(Duration.ofSeconds(q.stickyQueueScheduleToStartTimeoutSeconds));
+        }
+        if (q.maxHeartbeatThrottleIntervalSeconds != null) {
+            builder.setMaxHeartbeatThrottleInterval(Duration.ofSeconds(q.maxHeartbeatThrottleIntervalSeconds));
+        }
+        return builder.validateAndBuildWithDefaults();
+    }
+
+    /**
+     * Virtual threads only take effect on a Java 21+ runtime.
+     */
+    public boolean isVirtualThreadsActive() {
+        return virtualThreads.enabled && Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Effective factory values, for startup logging.
+     */
+    public static String describe(WorkerFactoryOptions options) {
+        return "workflowCacheSize=" + options.getWorkflowCacheSize()
+                + ", maxWorkflowThreadCount=" + options.getMaxWorkflowThreadCount();
+    }
+
+    /**
+     * Effective worker values (after SDK defaults), for startup logging.
+     */
+    public static String describe(WorkerOptions options) {
+        return "maxConcurrentActivityExecutions=" + options.getMaxConcurrentActivityExecutionSize()
+                + ", maxConcurrentWorkflowTaskExecutions=" + options.getMaxConcurrentWorkflowTaskExecutionSize()
+                + ", maxConcurrentLocalActivityExecutions=" + options.getMaxConcurrentLocalActivityExecutionSize()
+                + ", activityPollers=" + options.getMaxConcurrentActivityTaskPollers()
+                + ", workflowPollers=" + options.getMaxConcurrentWorkflowTaskPollers()
+                + ", maxWorkerActivitiesPerSecond=" + options.getMaxWorkerActivitiesPerSecond()
+                + ", maxTaskQueueActivitiesPerSecond=" + options.getMaxTaskQueueActivitiesPerSecond()
+                + ", stickyQueueScheduleToStartTimeout=" + options.getStickyQueueScheduleToStartTimeout()
+                + ", maxHeartbeatThrottleInterval=" + options.getMaxHeartbeatThrottleInterval()
+                + ", virtualThreads=" + options.isUsingVirtualThreadsOnActivityWorker();
+    }
+}
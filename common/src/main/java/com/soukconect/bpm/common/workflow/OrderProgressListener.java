@@ -0,0 +1,23 @@
+package com.soukconect.bpm.common.workflow;
+
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.dto.TimelineEvent;
+
+/**
+ * Receives OrderWorkflow progress in the worker running it, so status reads do not need a
+ * workflow query. Called directly from workflow code, outside of replay, so it adds nothing
+ * to the workflow history; implementations must be quick and must not throw.
+ */
+public interface OrderProgressListener {
+
+    /** Listener of workers without a read model. */
+    OrderProgressListener NONE = (workflowId, orderId, status, event, timelineSize) -> {
+    };
+
+    /**
+     * Record a status change and/or timeline event (either may be null); timelineSize is the
+     * length of the workflow's timeline including the event, so gaps can be detected.
+     */
+    void publishProgress(String workflowId, Long orderId, OrderWorkflowStatus status, TimelineEvent event,
+                         int timelineSize);
+}
@@ -1,25 +1,27 @@
 package com.soukconect.bpm.common.workflow;
 
 import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.dto.OrderTimeline;
 import com.soukconect.bpm.common.dto.OrderWorkflowInput;
 import com.soukconect.bpm.common.dto.OrderWorkflowOutput;
-import com.soukconect.bpm.common.dto.TimelineEvent;
+import com.soukconect.bpm.common.dto.OrderWorkflowState;
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
 import io.temporal.workflow.QueryMethod;
 import io.temporal.workflow.SignalMethod;
 import io.temporal.workflow.WorkflowInterface;
 import io.temporal.workflow.WorkflowMethod;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * OrderWorkflow orchestrates the complete order lifecycle from placement to
  * delivery.
  *
  * State Machine:
- * CREATED → VALIDATING → PAYMENT_PROCESSING → INVENTORY_RESERVED →
+ * CREATED → CREATING → PAYMENT_PROCESSING → INVENTORY_RESERVED →
  * AWAITING_VENDOR_CONFIRMATION → VENDOR_PREPARING → READY_FOR_PICKUP →
  * DELIVERY_ASSIGNED → OUT_FOR_DELIVERY → DELIVERED → COMPLETED
+ * (any non-final state → FAILED / CANCELLED; see {@link OrderWorkflowStatus})
  *
  * Compensation (Saga) on failure reverses completed steps.
  */
@@ -31,11 +33,12 @@ public interface OrderWorkflow {
     /**
      * Main workflow method that processes an order through its lifecycle.
      *
-     * @param input The order workflow input
+     * @param input      The order workflow input
+     * @param resumeFrom null when starting; the state handed over when a run continues as new
      * @return The workflow output with final status
      */
     @WorkflowMethod
-    OrderWorkflowOutput processOrder(CreateOrderRequest input);
+    OrderWorkflowOutput processOrder(CreateOrderRequest input, OrderWorkflowState resumeFrom);
 
     // ============== SIGNALS ==============
 
@@ -81,13 +84,19 @@ public interface OrderWorkflow {
      * Query: Get current workflow status.
      */
     @QueryMethod
-    String getStatus();
+    OrderWorkflowStatus getStatus();
 
     /**
-     * Query: Get full event timeline.
+     * Query: Get the order id, null until the order has been created.
      */
     @QueryMethod
-    List<TimelineEvent> getTimeline();
+    Long getOrderId();
+
+    /**
+     * Query: Get the event timeline (compact; see OrderTimeline#toEvents).
+     */
+    @QueryMethod
+    OrderTimeline getTimeline();
 
     /**
      * Query: Get estimated delivery time.
@@ -0,0 +1,47 @@
+package com.soukconect.bpm.common.workflow;
+
+import com.soukconect.bpm.common.dto.VendorOrderInput;
+import com.soukconect.bpm.common.dto.VendorOrderResult;
+import io.temporal.workflow.QueryMethod;
+import io.temporal.workflow.SignalMethod;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+
+/**
+ * One vendor's share of an order, run as a child of OrderWorkflow.
+ *
+ * State Machine:
+ * AWAITING_CONFIRMATION → PREPARING → READY
+ * (or REJECTED / TIMED_OUT / CANCELLED)
+ *
+ * Vendor signals are sent to the parent OrderWorkflow, which forwards them here.
+ */
+@WorkflowInterface
+public interface VendorOrderWorkflow {
+
+    /**
+     * Child workflow id of a vendor's share of an order.
+     */
+    static String workflowId(String parentWorkflowId, Long vendorId) {
+        return parentWorkflowId + "-vendor-" + vendorId;
+    }
+
+    @WorkflowMethod
+    VendorOrderResult fulfil(VendorOrderInput input);
+
+    // ============== SIGNALS ==============
+
+    @SignalMethod
+    void confirmed(boolean confirmed, Integer prepTimeMinutes, String notes);
+
+    @SignalMethod
+    void ready();
+
+    @SignalMethod
+    void cancel(String reason);
+
+    // ============== QUERIES ==============
+
+    @QueryMethod
+    String getStatus();
+}
@@ -0,0 +1,41 @@
+package com.soukconect.bpm.common.workflow;
+
+import io.temporal.workflow.Workflow;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Time for workflow code. {@link #now()} is derived from Workflow.currentTimeMillis(), which
+ * replays to the same value, unlike LocalDateTime.now(); never read the system clock in a
+ * workflow. Conversions use the worker's zone, with the offset resolved once when it is fixed.
+ */
+public final class WorkflowTime {
+
+    private static final ZoneRules RULES = ZoneId.systemDefault().getRules();
+    private static final ZoneOffset FIXED_OFFSET = RULES.isFixedOffset() ? RULES.getOffset(Instant.EPOCH) : null;
+
+    private WorkflowTime() {
+    }
+
+    /**
+     * Current workflow time. Only valid inside workflow code.
+     */
+    public static LocalDateTime now() {
+        return toLocalDateTime(Workflow.currentTimeMillis());
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        ZoneOffset offset = FIXED_OFFSET != null ? FIXED_OFFSET : RULES.getOffset(Instant.ofEpochMilli(epochMillis));
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, offset);
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        ZoneOffset offset = FIXED_OFFSET != null ? FIXED_OFFSET : RULES.getOffset(dateTime);
+        return dateTime.toEpochSecond(offset) * 1000L + dateTime.getNano() / 1_000_000;
+    }
+}
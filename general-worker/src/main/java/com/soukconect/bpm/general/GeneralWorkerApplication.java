@@ -1,16 +1,19 @@
 package com.soukconect.bpm.general;
 
+import com.soukconect.bpm.common.worker.WorkerTuning;
 import com.soukconect.bpm.general.activity.NotificationActivities;
 import com.soukconect.bpm.general.activity.VendorActivities;
+import com.soukconect.bpm.general.config.TemporalServerConfig;
+import com.soukconect.bpm.general.config.WorkerConfig;
 import com.soukconect.bpm.general.workflow.VendorPayoutWorkflowImpl;
 import com.soukconect.bpm.general.workflow.NotificationWorkflowImpl;
 import io.temporal.client.WorkflowClient;
-import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -24,16 +27,22 @@ public class GeneralWorkerApplication implements CommandLineRunner {
 
     public static final String TASK_QUEUE = "general-queue";
 
-    @Value("${temporal.server.address:localhost:7233}")
-    private String temporalAddress;
-
+    private final WorkflowClient client;
+    private final TemporalServerConfig serverConfig;
     private final VendorActivities vendorActivities;
     private final NotificationActivities notificationActivities;
-
-    public GeneralWorkerApplication(VendorActivities vendorActivities,
-                                    NotificationActivities notificationActivities) {
+    private final WorkerConfig workerConfig;
+
+    public GeneralWorkerApplication(WorkflowClient client,
+                                    TemporalServerConfig serverConfig,
+                                    VendorActivities vendorActivities,
+                                    NotificationActivities notificationActivities,
+                                    WorkerConfig workerConfig) {
+        this.client = client;
+        this.serverConfig = serverConfig;
         this.vendorActivities = vendorActivities;
         this.notificationActivities = notificationActivities;
+        this.workerConfig = workerConfig;
     }
 
     public static void main(String[] args) {
@@ -42,13 +51,20 @@ public class GeneralWorkerApplication implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        log.info("Starting General Worker, connecting to Temporal at: {}", temporalAddress);
+        log.info("Starting General Worker, connecting to Temporal at: {} (namespace {})",
+                serverConfig.getAddress(), serverConfig.getNamespace());
 
-        WorkflowServiceStubs serviceStubs = WorkflowServiceStubs.newLocalServiceStubs();
-        WorkflowClient client = WorkflowClient.newInstance(serviceStubs);
-        WorkerFactory factory = WorkerFactory.newInstance(client);
+        if (workerConfig.getVirtualThreads().isEnabled() && !workerConfig.isVirtualThreadsActive()) {
+            log.warn("Virtual threads requested but running on Java {}; using platform threads",
+                    Runtime.version().feature());
+        }
+        WorkerFactoryOptions factoryOptions = workerConfig.toWorkerFactoryOptions();
+        log.info("Worker factory options: {}", WorkerTuning.describe(factoryOptions));
+        WorkerFactory factory = WorkerFactory.newInstance(client, factoryOptions);
 
-        Worker worker = factory.newWorker(TASK_QUEUE);
+        WorkerOptions workerOptions = workerConfig.toWorkerOptions(TASK_QUEUE);
+        log.info("Worker options for {}: {}", TASK_QUEUE, WorkerTuning.describe(workerOptions));
+        Worker worker = factory.newWorker(TASK_QUEUE, workerOptions);
 
         // Register workflow implementations
         worker.registerWorkflowImplementationTypes(
@@ -64,8 +80,9 @@ public class GeneralWorkerApplication implements CommandLineRunner {
         log.info("General Worker started, listening on task queue: {}", TASK_QUEUE);
     }
 
+
     @Bean
-    public RestTemplate restTemplate() {
+    public static RestTemplate restTemplate() {
         return new RestTemplate();
     }
 }
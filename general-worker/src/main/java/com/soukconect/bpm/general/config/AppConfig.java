@@ -0,0 +1,31 @@
+package com.soukconect.bpm.general.config;
+
+import com.soukconect.bpm.common.worker.TemporalConnection;
+import io.temporal.client.WorkflowClient;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AppConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AppConfig.class);
+
+    /**
+     * One gRPC channel to the Temporal frontend for the worker.
+     */
+    @Bean
+    public WorkflowServiceStubs workflowServiceStubs(TemporalServerConfig config) {
+        WorkflowServiceStubsOptions options = config.toServiceStubsOptions();
+        log.info("Temporal service stubs: {}", TemporalConnection.describe(options));
+        return WorkflowServiceStubs.newServiceStubs(options);
+    }
+
+    @Bean
+    public WorkflowClient workflowClient(TemporalServerConfig config, WorkflowServiceStubs workflowServiceStubs) {
+        return config.newWorkflowClient(workflowServiceStubs);
+    }
+}
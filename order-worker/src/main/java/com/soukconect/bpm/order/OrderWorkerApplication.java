@@ -2,14 +2,25 @@ package com.soukconect.bpm.order;
 
 import com.soukconect.bpm.common.activity.OrderActivities;
 import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import com.soukconect.bpm.common.worker.WorkerTuning;
+import com.soukconect.bpm.order.config.ActivityConfig;
+import com.soukconect.bpm.order.config.TemporalServerConfig;
+import com.soukconect.bpm.order.config.WorkerConfig;
+import com.soukconect.bpm.order.config.WorkflowHistoryConfig;
+import com.soukconect.bpm.order.config.WorkflowTimeoutConfig;
+import com.soukconect.bpm.order.readmodel.OrderProgressPublisher;
 import com.soukconect.bpm.order.workflow.OrderWorkflowImpl;
+import com.soukconect.bpm.order.workflow.VendorOrderWorkflowImpl;
+import com.soukconect.bpm.order.workflow.WorkflowReplayCheck;
 import io.temporal.client.WorkflowClient;
-import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.WorkflowImplementationOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -21,13 +32,31 @@ public class OrderWorkerApplication implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(OrderWorkerApplication.class);
 
-    @Value("${temporal.server.address:localhost:7233}")
-    private String temporalAddress;
-
+    private final WorkflowClient client;
+    private final TemporalServerConfig serverConfig;
     private final OrderActivities orderActivities;
-
-    public OrderWorkerApplication(OrderActivities orderActivities) {
+    private final OrderProgressPublisher progressPublisher;
+    private final WorkerConfig workerConfig;
+    private final ActivityConfig activityConfig;
+    private final WorkflowTimeoutConfig timeoutConfig;
+    private final WorkflowHistoryConfig historyConfig;
+    private final WorkflowReplayCheck replayCheck;
+
+    public OrderWorkerApplication(@Qualifier("workerWorkflowClient") WorkflowClient client,
+                                  TemporalServerConfig serverConfig,
+                                  OrderActivities orderActivities, OrderProgressPublisher progressPublisher,
+                                  WorkerConfig workerConfig,
+                                  ActivityConfig activityConfig, WorkflowTimeoutConfig timeoutConfig,
+                                  WorkflowHistoryConfig historyConfig, WorkflowReplayCheck replayCheck) {
+        this.client = client;
+        this.serverConfig = serverConfig;
         this.orderActivities = orderActivities;
+        this.progressPublisher = progressPublisher;
+        this.workerConfig = workerConfig;
+        this.activityConfig = activityConfig;
+        this.timeoutConfig = timeoutConfig;
+        this.historyConfig = historyConfig;
+        this.replayCheck = replayCheck;
     }
 
     public static void main(String[] args) {
@@ -36,24 +65,33 @@ public class OrderWorkerApplication implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        log.info("Starting Order Worker, connecting to Temporal at: {}", temporalAddress);
-
-        // Create Temporal service stubs
-        WorkflowServiceStubs serviceStubs = WorkflowServiceStubs.newLocalServiceStubs();
+        log.info("Starting Order Worker, connecting to Temporal at: {} (namespace {})",
+                serverConfig.getAddress(), serverConfig.getNamespace());
 
-        // Create workflow client
-        WorkflowClient client = WorkflowClient.newInstance(serviceStubs);
+        if (workerConfig.getVirtualThreads().isEnabled() && !workerConfig.isVirtualThreadsActive()) {
+            log.warn("Virtual threads requested but running on Java {}; using platform threads",
+                    Runtime.version().feature());
+        }
 
         // Create worker factory
-        WorkerFactory factory = WorkerFactory.newInstance(client);
+        WorkerFactoryOptions factoryOptions = workerConfig.toWorkerFactoryOptions();
+        log.info("Worker factory options: {}", WorkerTuning.describe(factoryOptions));
+        WorkerFactory factory = WorkerFactory.newInstance(client, factoryOptions);
 
         // Create worker for order task queue
-        Worker worker = factory.newWorker(OrderWorkflow.TASK_QUEUE);
+        WorkerOptions workerOptions = workerConfig.toWorkerOptions(OrderWorkflow.TASK_QUEUE);
+        log.info("Worker options for {}: {}", OrderWorkflow.TASK_QUEUE, WorkerTuning.describe(workerOptions));
+        Worker worker = factory.newWorker(OrderWorkflow.TASK_QUEUE, workerOptions);
 
-        // Register workflow implementation
-        worker.registerWorkflowImplementationTypes(OrderWorkflowImpl.class);
+        activityConfig.getMethodOptions().forEach((type, options) ->
+                log.debug("Activity {}: startToClose={}, retry={}", type,
+                        options.getStartToCloseTimeout(), options.getRetryOptions()));
+        registerWorkflows(worker);
 
-        // Register activity implementation
+        // Recorded histories must replay with this build before it takes work
+        replayCheck.verify(this::registerWorkflows);
+
+        // Register activity implementations
         worker.registerActivitiesImplementations(orderActivities);
 
         // Start the worker
@@ -62,4 +100,22 @@ public class OrderWorkerApplication implements CommandLineRunner {
         log.info("Order Worker started, listening on task queue: {}", OrderWorkflow.TASK_QUEUE);
     }
 
+    /**
+     * Register workflow implementations with activity options and timeouts from configuration.
+     */
+    private void registerWorkflows(Worker worker) {
+        WorkflowImplementationOptions workflowOptions = WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(activityConfig.getStandardOptions())
+                .setActivityOptions(activityConfig.getMethodOptions())
+                .build();
+        worker.registerWorkflowImplementationFactory(OrderWorkflow.class,
+                () -> new OrderWorkflowImpl(timeoutConfig.getVendorConfirmationTimeout(),
+                        timeoutConfig.getDeliveryCompletionTimeout(),
+                        historyConfig.getMaxEvents(), historyConfig.getMaxSizeBytes(),
+                        historyConfig.getMaxTimelineEntries(), progressPublisher),
+                workflowOptions);
+        // Per-vendor children of OrderWorkflow
+        worker.registerWorkflowImplementationTypes(VendorOrderWorkflowImpl.class);
+    }
+
 }
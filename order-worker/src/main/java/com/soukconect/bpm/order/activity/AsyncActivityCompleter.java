@@ -0,0 +1,74 @@
+package com.soukconect.bpm.order.activity;
+
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.ActivityCompletionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Completes activities asynchronously from a non-blocking {@link Mono}.
+ *
+ * The activity method hands its pipeline to {@link #completeAsync(Mono)} and returns
+ * immediately, releasing the activity slot and thread. The result (or failure) is
+ * reported to Temporal through {@link ActivityCompletionClient} when the Mono settles.
+ */
+@Component
+public class AsyncActivityCompleter {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncActivityCompleter.class);
+
+    private final ActivityCompletionClient completionClient;
+
+    // Completion is a blocking gRPC call; keep it off the Netty event loop
+    private final Scheduler completionScheduler = Schedulers.boundedElastic();
+
+    public AsyncActivityCompleter(ActivityCompletionClient completionClient) {
+        this.completionClient = completionClient;
+    }
+
+    /**
+     * Must be called from inside an activity method. The returned value is a placeholder
+     * for the activity's return statement; Temporal ignores it.
+     */
+    public <T> T completeAsync(Mono<T> result) {
+        ActivityExecutionContext context = Activity.getExecutionContext();
+        byte[] taskToken = context.getTaskToken();
+        String activityType = context.getInfo().getActivityType();
+        context.doNotCompleteOnReturn();
+
+        result.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .publishOn(completionScheduler)
+                .subscribe(
+                        value -> complete(taskToken, activityType, value.orElse(null)),
+                        error -> fail(taskToken, activityType, error));
+        return null;
+    }
+
+    private void complete(byte[] taskToken, String activityType, Object value) {
+        try {
+            completionClient.complete(taskToken, value);
+        } catch (ActivityCompletionException e) {
+            // Timed out or cancelled in the meantime; the server already decided the outcome
+            log.warn("Could not complete activity {}: {}", activityType, e.getMessage());
+        }
+    }
+
+    private void fail(byte[] taskToken, String activityType, Throwable error) {
+        log.warn("Async activity {} failed: {}", activityType, error.getMessage());
+        try {
+            completionClient.completeExceptionally(taskToken,
+                    error instanceof Exception e ? e : new RuntimeException(error));
+        } catch (ActivityCompletionException e) {
+            log.warn("Could not report failure of activity {}: {}", activityType, e.getMessage());
+        }
+    }
+}
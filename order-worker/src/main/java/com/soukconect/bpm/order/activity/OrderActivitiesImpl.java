@@ -1,12 +1,20 @@
 package com.soukconect.bpm.order.activity;
 
 import com.soukconect.bpm.common.activity.OrderActivities;
+import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.dto.InventoryReservation;
+import com.soukconect.bpm.common.dto.OrderLine;
+import com.soukconect.bpm.common.dto.OrderSnapshot;
 import com.soukconect.bpm.common.dto.OrderWorkflowInput;
 import com.soukconect.bpm.common.dto.PaymentResult;
+import com.soukconect.bpm.common.dto.VendorNotificationResult;
 import com.soukconect.bpm.order.client.OrderServiceClient;
 import com.soukconect.bpm.order.client.ProductServiceClient;
-import com.soukconect.bpm.order.client.VendorServiceClient;
-import com.soukconect.bpm.order.client.CustomerServiceClient;
+import com.soukconect.bpm.order.client.ProductVendorResolver;
+import com.soukconect.bpm.order.client.ReactiveCustomerServiceClient;
+import com.soukconect.bpm.order.client.ReactiveOrderServiceClient;
+import com.soukconect.bpm.order.client.ReactiveProductServiceClient;
+import com.soukconect.bpm.order.client.ReactiveVendorServiceClient;
 import com.soukconect.bpm.order.client.PaymentServiceClient;
 import com.soukconect.bpm.order.client.PaymentServiceClient.CreatePaymentRequest;
 import com.soukconect.bpm.order.client.PaymentServiceClient.PaymentInfo;
@@ -14,14 +22,39 @@ import com.soukconect.bpm.order.client.PaymentGatewayClient;
 import com.soukconect.bpm.order.client.PaymentGatewayClient.ChargeRequest;
 import com.soukconect.bpm.order.client.PaymentGatewayClient.GatewayResult;
 import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of OrderActivities that calls existing microservices via REST.
+ *
+ * Single-call I/O activities (order creation, status updates, vendor and customer
+ * notifications) run on non-blocking clients and complete asynchronously through
+ * {@link AsyncActivityCompleter}, so they do not hold a worker thread while waiting
+ * on the downstream service. Payment still uses the blocking clients; inventory uses
+ * a batch call, falling back to bounded-parallel per-item calls.
  */
 @Component
 public class OrderActivitiesImpl implements OrderActivities {
@@ -29,35 +62,80 @@ public class OrderActivitiesImpl implements OrderActivities {
     private static final Logger log = LoggerFactory.getLogger(OrderActivitiesImpl.class);
 
     private final OrderServiceClient orderServiceClient;
+    private final ReactiveOrderServiceClient reactiveOrderServiceClient;
     private final ProductServiceClient productServiceClient;
-    private final VendorServiceClient vendorServiceClient;
-    private final CustomerServiceClient customerServiceClient;
+    private final ReactiveProductServiceClient reactiveProductServiceClient;
+    private final ProductVendorResolver vendorResolver;
+    private final ReactiveVendorServiceClient vendorServiceClient;
+    private final ReactiveCustomerServiceClient customerServiceClient;
     private final PaymentServiceClient paymentServiceClient;
     private final PaymentGatewayClient paymentGatewayClient;
+    private final AsyncActivityCompleter completer;
+    private final int stockCallParallelism;
+    private final int stockChunkSize;
+    private final int vendorCallParallelism;
 
     public OrderActivitiesImpl(
             OrderServiceClient orderServiceClient,
+            ReactiveOrderServiceClient reactiveOrderServiceClient,
             ProductServiceClient productServiceClient,
-            VendorServiceClient vendorServiceClient,
-            CustomerServiceClient customerServiceClient,
+            ReactiveProductServiceClient reactiveProductServiceClient,
+            ProductVendorResolver vendorResolver,
+            ReactiveVendorServiceClient vendorServiceClient,
+            ReactiveCustomerServiceClient customerServiceClient,
             PaymentServiceClient paymentServiceClient,
-            PaymentGatewayClient paymentGatewayClient) {
+            PaymentGatewayClient paymentGatewayClient,
+            AsyncActivityCompleter completer,
+            @Value("${services.product.stock-call-parallelism:8}") int stockCallParallelism,
+            @Value("${services.product.stock-chunk-size:50}") int stockChunkSize,
+            @Value("${services.vendor.call-parallelism:16}") int vendorCallParallelism) {
         this.orderServiceClient = orderServiceClient;
+        this.reactiveOrderServiceClient = reactiveOrderServiceClient;
         this.productServiceClient = productServiceClient;
+        this.reactiveProductServiceClient = reactiveProductServiceClient;
+        this.vendorResolver = vendorResolver;
         this.vendorServiceClient = vendorServiceClient;
         this.customerServiceClient = customerServiceClient;
         this.paymentServiceClient = paymentServiceClient;
         this.paymentGatewayClient = paymentGatewayClient;
+        this.completer = completer;
+        this.stockCallParallelism = stockCallParallelism;
+        this.stockChunkSize = stockChunkSize;
+        this.vendorCallParallelism = vendorCallParallelism;
     }
 
     // ============== VALIDATION ==============
 
     @Override
-    public Long createOrder(com.soukconect.bpm.common.dto.CreateOrderRequest request) {
+    public OrderSnapshot createOrder(CreateOrderRequest request) {
         log.info("Creating order via API");
-        com.soukconect.bpm.common.dto.OrderDto createdOrder = orderServiceClient.createOrder(request);
-        log.info("Order created successfully with ID: {}", createdOrder.id());
-        return createdOrder.id();
+        return completer.completeAsync(reactiveOrderServiceClient.createOrder(request)
+                .doOnNext(createdOrder -> log.info("Order created successfully with ID: {}", createdOrder.id()))
+                .map(OrderSnapshot::from));
+    }
+
+    @Override
+    public OrderSnapshot resolveVendors(OrderSnapshot order) {
+        Map<Long, Long> vendors = vendorResolver.resolve(order.items().stream().map(OrderLine::productId).toList());
+
+        List<OrderLine> lines = order.items().stream()
+                .map(line -> line.withVendor(vendors.get(line.productId())))
+                .toList();
+        List<Long> unresolved = lines.stream()
+                .filter(line -> line.vendorId() == null)
+                .map(OrderLine::productId)
+                .toList();
+        if (!unresolved.isEmpty()) {
+            // No vendor would ever be notified of these lines; retried, as a failed lookup is
+            // indistinguishable from a missing vendor, then the order fails
+            log.warn("Order {}: no vendor found for {} of {} lines", order.orderId(), unresolved.size(), lines.size());
+            throw Activity.wrap(new IllegalStateException(
+                    "No vendor found for products " + unresolved + " of order " + order.orderId()));
+        }
+
+        OrderSnapshot resolved = new OrderSnapshot(order.orderId(), order.customerId(), order.totalAmount(), lines);
+        log.info("Order {} routed to vendors {}", order.orderId(), resolved.vendorIds());
+        return resolved;
     }
 
     @Override
@@ -136,19 +214,19 @@ public class OrderActivitiesImpl implements OrderActivities {
     }
 
     @Override
-    public void refundPayment(Long orderId, Long paymentId, String transactionId) {
-        log.info("Refunding payment for order: {}, paymentId: {}, transactionId: {}", orderId, paymentId, transactionId);
+    public void refundPayment(Long orderId, Long paymentId, String transactionId, BigDecimal amount) {
+        log.info("Refunding payment for order: {}, paymentId: {}, transactionId: {}, amount: {}",
+                orderId, paymentId, transactionId, amount);
 
         try {
-            var order = orderServiceClient.getOrder(orderId);
-            if (order != null && transactionId != null) {
+            if (transactionId != null) {
                 // Find the payment and refund via gateway
                 String gateway = "STRIPE"; // Default - could be stored on order
                 PaymentGatewayClient.RefundRequest refundRequest = new PaymentGatewayClient.RefundRequest(
                         paymentId,
                         gateway,
                         transactionId,
-                        order.totalAmount(),
+                        amount,
                         "Order refund");
 
                 GatewayResult result = paymentGatewayClient.refund(refundRequest);
@@ -167,66 +245,235 @@ public class OrderActivitiesImpl implements OrderActivities {
     // ============== INVENTORY ==============
 
     @Override
-    public void reserveInventory(OrderWorkflowInput input) {
-        log.info("Reserving inventory for order: {}", input.orderId());
-
-        var order = orderServiceClient.getOrder(input.orderId());
-        if (order != null && order.items() != null) {
-            for (var item : order.items()) {
-                productServiceClient.reserveStock(item.productId(), item.quantity());
+    public InventoryReservation reserveInventory(OrderWorkflowInput input) {
+        List<OrderLine> lines = input.items();
+        ActivityExecutionContext context = Activity.getExecutionContext();
+        StockProgress progress = resumeFrom(context, "reservation", input.orderId(), lines.size());
+
+        // Chunk by chunk, heartbeating progress; a retry resumes after the last completed line.
+        // Errors never leave the loop, so the workflow always learns which lines are reserved.
+        List<Integer> failed = new ArrayList<>(progress.failed());
+        List<Integer> unconfirmed = new ArrayList<>(progress.unconfirmed());
+        for (int from = progress.next(); from < lines.size(); from += stockChunkSize) {
+            int to = Math.min(from + stockChunkSize, lines.size());
+            List<OrderLine> chunk = lines.subList(from, to);
+
+            if (from == progress.next() && !progress.done().isEmpty()) {
+                // An earlier attempt was already reserving this chunk per item
+                perItem(context, from, chunk, progress.done(), failed, reactiveProductServiceClient::reserveStock,
+                        "reserve", OrderActivitiesImpl::isNotProcessed);
+            } else {
+                try {
+                    if (!productServiceClient.reserveStockBatch(input.orderId(), chunk,
+                            reservationKey(input.orderId(), chunk))) {
+                        perItem(context, from, chunk, List.of(), failed, reactiveProductServiceClient::reserveStock,
+                                "reserve", OrderActivitiesImpl::isNotProcessed);
+                    }
+                } catch (Exception e) {
+                    // No answer: the batch may or may not have been applied, and resending it per item
+                    // could reserve twice, so the order is not placed and the saga resolves the chunk
+                    // through confirmReservation
+                    log.warn("Batch reservation of lines {}-{} got no answer for order {}: {}",
+                            from, to - 1, input.orderId(), e.getMessage());
+                    IntStream.range(from, to).forEach(unconfirmed::add);
+                }
             }
+            context.heartbeat(new StockProgress(to, List.copyOf(failed), List.of(), List.copyOf(unconfirmed)));
         }
 
-        log.info("Inventory reserved for order: {}", input.orderId());
+        Set<Integer> failedIndexes = Set.copyOf(failed);
+        Set<Integer> unconfirmedIndexes = Set.copyOf(unconfirmed);
+        List<OrderLine> reserved = new ArrayList<>();
+        List<OrderLine> notReserved = new ArrayList<>();
+        List<OrderLine> unknown = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            (failedIndexes.contains(i) ? notReserved : unconfirmedIndexes.contains(i) ? unknown : reserved)
+                    .add(lines.get(i));
+        }
+
+        InventoryReservation reservation = new InventoryReservation(reserved, notReserved, unknown);
+        if (reservation.hasFailures()) {
+            log.warn("Inventory partially reserved for order: {}, {} of {} lines failed, {} unconfirmed",
+                    input.orderId(), notReserved.size(), lines.size(), unknown.size());
+        } else {
+            log.info("Inventory reserved for order: {}", input.orderId());
+        }
+        return reservation;
     }
 
     @Override
-    public void releaseInventory(OrderWorkflowInput input) {
-        log.info("Releasing inventory for order: {}", input.orderId());
-
-        try {
-            var order = orderServiceClient.getOrder(input.orderId());
-            if (order != null && order.items() != null) {
-                for (var item : order.items()) {
-                    try {
-                        productServiceClient.releaseStock(item.productId(), item.quantity());
-                    } catch (Exception e) {
-                        log.warn("Failed to release stock for product {}: {}", item.productId(), e.getMessage());
-                    }
+    public void releaseInventory(Long orderId, List<OrderLine> lines) {
+        ActivityExecutionContext context = Activity.getExecutionContext();
+        StockProgress progress = resumeFrom(context, "release", orderId, lines.size());
+
+        for (int from = progress.next(); from < lines.size(); from += stockChunkSize) {
+            int to = Math.min(from + stockChunkSize, lines.size());
+            List<OrderLine> chunk = lines.subList(from, to);
+
+            boolean resumed = from == progress.next() && !progress.done().isEmpty();
+            boolean released = false;
+            if (!resumed) {
+                try {
+                    released = productServiceClient.releaseStockBatch(orderId, chunk);
+                } catch (Exception e) {
+                    log.warn("Batch release failed for order {}, releasing per item: {}", orderId, e.getMessage());
                 }
             }
-        } catch (Exception e) {
-            log.warn("Failed to release inventory for order {}: {}", input.orderId(), e.getMessage());
+            if (!released) {
+                // Failures are logged per line by perItem
+                perItem(context, from, chunk, resumed ? progress.done() : List.of(), new ArrayList<>(),
+                        reactiveProductServiceClient::releaseStock, "release", OrderActivitiesImpl::isTransient);
+            }
+            context.heartbeat(new StockProgress(to, List.of(), List.of(), List.of()));
         }
     }
 
-    // ============== VENDOR ==============
-
     @Override
-    public void notifyVendors(OrderWorkflowInput input) {
-        log.info("Notifying vendors for order: {}", input.orderId());
+    public List<OrderLine> confirmReservation(Long orderId, List<OrderLine> lines) {
+        ActivityExecutionContext context = Activity.getExecutionContext();
+        log.info("Confirming stock reservation for order: {} ({} unconfirmed lines)", orderId, lines.size());
+
+        // The unconfirmed lines are whole chunks of reserveInventory, so the same chunking
+        // rebuilds the same batches and keys. No answer fails the attempt; resending is safe.
+        List<OrderLine> reserved = new ArrayList<>();
+        for (int from = 0; from < lines.size(); from += stockChunkSize) {
+            List<OrderLine> chunk = lines.subList(from, Math.min(from + stockChunkSize, lines.size()));
+            if (productServiceClient.reserveStockBatch(orderId, chunk, reservationKey(orderId, chunk))) {
+                reserved.addAll(chunk);
+            } else {
+                // Rejected now, so the first batch was not applied either
+                log.info("Batch of {} lines for order {} was not reserved", chunk.size(), orderId);
+            }
+            context.heartbeat(from);
+        }
+        return reserved;
+    }
 
-        var order = orderServiceClient.getOrder(input.orderId());
+    private StockProgress resumeFrom(ActivityExecutionContext context, String action, Long orderId, int lineCount) {
+        StockProgress progress = context.getHeartbeatDetails(StockProgress.class).orElse(StockProgress.START);
+        if (progress.next() > 0 || !progress.done().isEmpty()) {
+            log.info("Resuming stock {} for order: {} at line {} of {} (attempt {})",
+                    action, orderId, progress.next() + progress.done().size(), lineCount,
+                    context.getInfo().getAttempt());
+        } else {
+            log.info("Stock {} for order: {} ({} lines)", action, orderId, lineCount);
+        }
+        return progress;
+    }
 
-        for (Long vendorId : input.vendorIds()) {
-            try {
-                vendorServiceClient.notifyNewOrder(vendorId, order);
-                log.info("Vendor {} notified for order: {}", vendorId, input.orderId());
-            } catch (Exception e) {
-                log.warn("Failed to notify vendor {}: {}", vendorId, e.getMessage());
-            }
+    /**
+     * Runs one stock call per line of the chunk starting at line {@code from}, at most
+     * {@code stockCallParallelism} at a time, skipping the lines in {@code done}.
+     *
+     * Heartbeats after every line with the lines handled so far, so a slow chunk cannot outlive
+     * the heartbeat timeout and a retry does not resend the calls that completed. A heartbeat
+     * failing (the attempt timed out or was cancelled) stops the chunk.
+     *
+     * @param failed    indexes of the lines that failed so far; failed lines of the chunk are added
+     * @param retryable errors after which the call is safe to resend
+     */
+    private void perItem(ActivityExecutionContext context, int from, List<OrderLine> chunk, List<Integer> done,
+                         List<Integer> failed, BiFunction<Long, Integer, Mono<Void>> call, String action,
+                         Predicate<Throwable> retryable) {
+        Set<Integer> skipped = Set.copyOf(done);
+        List<Integer> handled = new ArrayList<>(done);
+        Flux.range(from, chunk.size())
+                .filter(i -> !skipped.contains(i))
+                .flatMap(i -> {
+                    OrderLine line = chunk.get(i - from);
+                    return call.apply(line.productId(), line.quantity())
+                            // A failed line is final for the whole activity, so ride out transient errors here
+                            .retryWhen(transientRetry().filter(retryable))
+                            .thenReturn(Map.entry(i, true))
+                            .onErrorResume(e -> {
+                                log.warn("Failed to {} stock for product {}: {}", action, line.productId(), e.getMessage());
+                                return Mono.just(Map.entry(i, false));
+                            });
+                }, stockCallParallelism)
+                // Serialized by Flux; the heartbeat gets copies as it is sent later
+                .doOnNext(result -> {
+                    handled.add(result.getKey());
+                    if (!result.getValue()) {
+                        failed.add(result.getKey());
+                    }
+                    context.heartbeat(new StockProgress(from, List.copyOf(failed), List.copyOf(handled), List.of()));
+                })
+                .blockLast();
+    }
+
+    /**
+     * Two quick retries for transient (non-4xx) errors; the last error is propagated as is.
+     */
+    private static RetryBackoffSpec transientRetry() {
+        return Retry.backoff(2, Duration.ofMillis(200))
+                .filter(OrderActivitiesImpl::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static boolean isTransient(Throwable e) {
+        return !(e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+
+    /**
+     * Errors after which product-service has certainly not applied the call: the connection was
+     * never made, or the service turned the request away. Only these are retried for
+     * /reserve, which is not idempotent; after a timeout the line counts as failed instead.
+     */
+    private static boolean isNotProcessed(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().value() == 503;
         }
+        return e instanceof WebClientRequestException && e.getCause() instanceof ConnectException;
+    }
+
+    /**
+     * Idempotency key of a reservation batch: the same lines of the same order always get the
+     * same key, so confirmReservation can resend a batch without knowing where it started.
+     */
+    private static String reservationKey(Long orderId, List<OrderLine> chunk) {
+        int hash = 1;
+        for (OrderLine line : chunk) {
+            hash = 31 * hash + Objects.hash(line.productId(), line.quantity());
+        }
+        return "order-" + orderId + "-stock-" + chunk.size() + "-" + Integer.toHexString(hash);
+    }
+
+    /**
+     * Heartbeat details of the chunked stock activities: index of the next chunk to process,
+     * the indexes of lines that failed or are unconfirmed so far and, within that chunk, the
+     * lines already handled per item.
+     */
+    record StockProgress(int next, List<Integer> failed, List<Integer> done, List<Integer> unconfirmed) {
+        static final StockProgress START = new StockProgress(0, List.of(), List.of(), List.of());
+    }
+
+    // ============== VENDOR ==============
+
+    @Override
+    public VendorNotificationResult notifyVendors(OrderWorkflowInput input) {
+        log.info("Notifying {} vendors for order: {}", input.vendorIds().size(), input.orderId());
+
+        // All vendors at once (bounded), so reaching AWAITING_VENDOR_CONFIRMATION does not
+        // grow with the vendor count; each vendor's outcome is reported back
+        return completer.completeAsync(Flux.fromIterable(input.vendorIds())
+                .flatMap(vendorId -> vendorServiceClient.notifyNewOrder(vendorId, input)
+                        .retryWhen(transientRetry())
+                        .thenReturn(Map.entry(vendorId, true))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to notify vendor {} of order {}: {}", vendorId, input.orderId(), e.getMessage());
+                            return Mono.just(Map.entry(vendorId, false));
+                        }), vendorCallParallelism)
+                .collectList()
+                .map(outcomes -> new VendorNotificationResult(
+                        outcomes.stream().filter(Map.Entry::getValue).map(Map.Entry::getKey).toList(),
+                        outcomes.stream().filter(outcome -> !outcome.getValue()).map(Map.Entry::getKey).toList())));
     }
 
     @Override
     public void notifyVendorCancellation(Long orderId, Long vendorId, String reason) {
         log.info("Notifying vendor {} of cancellation for order: {}", vendorId, orderId);
 
-        try {
-            vendorServiceClient.notifyCancellation(vendorId, orderId, reason);
-        } catch (Exception e) {
-            log.warn("Failed to notify vendor {} of cancellation: {}", vendorId, e.getMessage());
-        }
+        completer.completeAsync(vendorServiceClient.notifyCancellation(vendorId, orderId, reason));
     }
 
     // ============== DELIVERY ==============
@@ -259,7 +506,7 @@ public class OrderActivitiesImpl implements OrderActivities {
     public void captureDeliveryProof(Long orderId, String proofUrl, String signature) {
         log.info("Capturing delivery proof for order: {}, proof: {}", orderId, proofUrl);
         // TODO: Store delivery proof in order service
-        orderServiceClient.updateStatus(orderId, "DELIVERED");
+        completer.completeAsync(reactiveOrderServiceClient.updateStatus(orderId, "DELIVERED"));
     }
 
     // ============== NOTIFICATIONS ==============
@@ -268,24 +515,17 @@ public class OrderActivitiesImpl implements OrderActivities {
     public void sendDeliveryNotification(Long orderId, Long customerId, String status, String message) {
         log.info("Sending delivery notification to customer {}: {}", customerId, status);
 
-        try {
-            customerServiceClient.sendNotification(customerId, "Order #" + orderId + " - " + status, message);
-        } catch (Exception e) {
-            log.warn("Failed to send notification to customer {}: {}", customerId, e.getMessage());
-        }
+        completer.completeAsync(
+                customerServiceClient.sendNotification(customerId, "Order #" + orderId + " - " + status, message));
     }
 
     @Override
     public void triggerReviewRequest(Long orderId, Long customerId) {
         log.info("Triggering review request for order: {}, customer: {}", orderId, customerId);
 
-        try {
-            customerServiceClient.sendNotification(customerId,
-                    "Rate your order",
-                    "How was your experience with order #" + orderId + "? Leave a review!");
-        } catch (Exception e) {
-            log.warn("Failed to trigger review request: {}", e.getMessage());
-        }
+        completer.completeAsync(customerServiceClient.sendNotification(customerId,
+                "Rate your order",
+                "How was your experience with order #" + orderId + "? Leave a review!"));
     }
 
     // ============== STATUS ==============
@@ -293,6 +533,6 @@ public class OrderActivitiesImpl implements OrderActivities {
     @Override
     public void updateOrderStatus(Long orderId, String status) {
         log.info("Updating order status: {} -> {}", orderId, status);
-        orderServiceClient.updateStatus(orderId, status);
+        completer.completeAsync(reactiveOrderServiceClient.updateStatus(orderId, status));
     }
 }
@@ -0,0 +1,81 @@
+package com.soukconect.bpm.order.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rejects requests with 429 and Retry-After when their {@link AdmissionLimiter} is saturated,
+ * before they reach the controller (and Temporal).
+ *
+ * An admitted request is released when it completes, or earlier through
+ * {@link #release(HttpServletRequest)} by a handler that goes on waiting for something other
+ * than the limited call, so the wait neither holds a slot nor counts as latency. A handler
+ * whose request turns into several limited calls charges the rest through
+ * {@link #tryTake(HttpServletRequest, int)}.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionInterceptor.class);
+
+    private static final String ADMISSION = AdmissionInterceptor.class.getName() + ".admission";
+
+    private record Admission(AdmissionLimiter limiter, long admittedAtNanos) {
+    }
+
+    private final AdmissionLimiter limiter;
+
+    public AdmissionInterceptor(AdmissionLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        AdmissionLimiter.Rejection rejection = limiter.tryAcquire();
+        if (rejection == null) {
+            request.setAttribute(ADMISSION, new Admission(limiter, System.nanoTime()));
+            return true;
+        }
+
+        log.debug("Rejected {} {} ({})", request.getMethod(), request.getRequestURI(), rejection.reason());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"error\":\"Too many requests (" + rejection.reason() + ")\"}");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        release(request);
+    }
+
+    /**
+     * Take more permits from the rate limit of the request's admission (the admission itself
+     * took one); null when taken or the request is not limited.
+     */
+    public static AdmissionLimiter.Rejection tryTake(HttpServletRequest request, int permits) {
+        if (request.getAttribute(ADMISSION) instanceof Admission admission) {
+            return admission.limiter().tryTake(permits);
+        }
+        return null;
+    }
+
+    /**
+     * Release the request's admission now, with the latency so far; no-op when not admitted
+     * or already released.
+     */
+    public static void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMISSION) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION);
+            admission.limiter().release(System.nanoTime() - admission.admittedAtNanos());
+        }
+    }
+}
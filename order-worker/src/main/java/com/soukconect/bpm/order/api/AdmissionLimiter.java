@@ -0,0 +1,159 @@
+package com.soukconect.bpm.order.api;
+
+import com.soukconect.bpm.order.config.AdmissionConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit plus token bucket for one group of endpoints.
+ *
+ * With adaptive on, the concurrency limit follows observed request latency (dominated by the
+ * Temporal RPC): at most once per second it shrinks by 10% while the average is above target
+ * and grows by 5% (at least 1) back towards maxConcurrent while below.
+ *
+ * Metrics: api.admission.requests{group, outcome, reason}, api.admission.in.flight{group}
+ * and api.admission.limit{group}.
+ */
+public class AdmissionLimiter {
+
+    private static final long ADJUST_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    /** Why a request was not admitted, and when to retry. */
+    public record Rejection(String reason, long retryAfterSeconds) {
+    }
+
+    private final AdmissionConfig.Limits limits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int concurrencyLimit;
+
+    // Token bucket
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    // Adaptive limit
+    private double averageLatencyMs;
+    private long lastAdjustNanos = System.nanoTime();
+
+    private final Counter admitted;
+    private final Counter rejectedConcurrency;
+    private final Counter rejectedRate;
+
+    public AdmissionLimiter(String group, AdmissionConfig.Limits limits, MeterRegistry registry) {
+        this.limits = limits;
+        this.concurrencyLimit = limits.getMaxConcurrent();
+        this.tokens = limits.getBurst();
+
+        this.admitted = requests(registry, group, "admitted", "none");
+        this.rejectedConcurrency = requests(registry, group, "rejected", "concurrency");
+        this.rejectedRate = requests(registry, group, "rejected", "rate");
+        Gauge.builder("api.admission.in.flight", inFlight, AtomicInteger::get)
+                .tag("group", group).register(registry);
+        Gauge.builder("api.admission.limit", this, limiter -> limiter.concurrencyLimit)
+                .tag("group", group).register(registry);
+    }
+
+    private static Counter requests(MeterRegistry registry, String group, String outcome, String reason) {
+        return Counter.builder("api.admission.requests")
+                .tag("group", group).tag("outcome", outcome).tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Admit a request (the caller must {@link #release(long)} it) or say why not.
+     */
+    public Rejection tryAcquire() {
+        if (!limits.isEnabled()) {
+            inFlight.incrementAndGet();
+            admitted.increment();
+            return null;
+        }
+        if (inFlight.incrementAndGet() > concurrencyLimit) {
+            inFlight.decrementAndGet();
+            rejectedConcurrency.increment();
+            return new Rejection("concurrency", limits.getRetryAfterSeconds());
+        }
+        long waitNanos = takeTokens(1);
+        if (waitNanos > 0) {
+            inFlight.decrementAndGet();
+            rejectedRate.increment();
+            return rateRejection(waitNanos);
+        }
+        admitted.increment();
+        return null;
+    }
+
+    /**
+     * Charge an admitted request for more permits of the token bucket, for a request that
+     * fans out into that many more calls; null when taken. A charge above burst takes the
+     * whole burst, so it can always succeed once the bucket is full.
+     */
+    public Rejection tryTake(int permits) {
+        if (!limits.isEnabled() || permits <= 0) {
+            return null;
+        }
+        long waitNanos = takeTokens(permits);
+        if (waitNanos > 0) {
+            rejectedRate.increment();
+            return rateRejection(waitNanos);
+        }
+        return null;
+    }
+
+    /**
+     * Release an admitted request that took latencyNanos.
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (limits.isEnabled() && limits.isAdaptive()) {
+            adapt(latencyNanos);
+        }
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    private Rejection rateRejection(long waitNanos) {
+        return new Rejection("rate", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+    }
+
+    // 0 when the tokens were taken, else nanos until there are enough
+    private synchronized long takeTokens(int permits) {
+        if (limits.getPermitsPerSecond() <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(limits.getBurst(),
+                tokens + (now - lastRefillNanos) / 1e9 * limits.getPermitsPerSecond());
+        lastRefillNanos = now;
+        double needed = Math.min(permits, Math.max(1, limits.getBurst()));
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) ((needed - tokens) / limits.getPermitsPerSecond() * 1e9);
+    }
+
+    private synchronized void adapt(long latencyNanos) {
+        double latencyMs = latencyNanos / 1e6;
+        averageLatencyMs = averageLatencyMs == 0 ? latencyMs
+                : averageLatencyMs + LATENCY_WEIGHT * (latencyMs - averageLatencyMs);
+
+        long now = System.nanoTime();
+        if (now - lastAdjustNanos < ADJUST_INTERVAL_NANOS) {
+            return;
+        }
+        lastAdjustNanos = now;
+        int limit = concurrencyLimit;
+        if (averageLatencyMs > limits.getTargetLatencyMs()) {
+            concurrencyLimit = Math.max(limits.getMinConcurrent(), (int) (limit * 0.9));
+        } else {
+            concurrencyLimit = Math.min(limits.getMaxConcurrent(), limit + Math.max(1, limit / 20));
+        }
+    }
+}
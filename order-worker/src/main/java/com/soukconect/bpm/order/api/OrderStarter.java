@@ -0,0 +1,248 @@
+package com.soukconect.bpm.order.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import com.soukconect.bpm.order.readmodel.OrderReadModel;
+import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.client.WorkflowOptions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts order workflows, one at a time or in bulk from an NDJSON stream.
+ *
+ * Bulk input is read line by line while workflows are being started, with at most
+ * bulk-start.concurrency starts in flight, and one result line is written per input line
+ * as soon as its start completes (in completion order). Memory stays flat however long
+ * the stream is.
+ *
+ * Workflow ids are never reused, even after the run closed: submitting an id again
+ * returns the existing run instead of placing the order twice.
+ */
+@Component
+public class OrderStarter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStarter.class);
+
+    // Order id queries while waiting for a workflow that may run on another worker
+    private static final Duration ORDER_QUERY_FIRST = Duration.ofMillis(250);
+    private static final Duration ORDER_QUERY_MAX = Duration.ofSeconds(2);
+
+    private final WorkflowClient workflowClient;
+    private final OrderWorkflowIds workflowIds;
+    private final OrderReadModel readModel;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final int concurrency;
+    private final int flushEvery;
+
+    // Starts are blocking gRPC calls; shared and capped across concurrent imports
+    private final Scheduler startScheduler;
+
+    public OrderStarter(
+            WorkflowClient workflowClient,
+            OrderWorkflowIds workflowIds,
+            OrderReadModel readModel,
+            ObjectMapper objectMapper,
+            @Value("${api.bulk-start.concurrency:32}") int concurrency,
+            @Value("${api.bulk-start.flush-every:100}") int flushEvery,
+            @Value("${api.bulk-start.threads:64}") int threads) {
+        this.workflowClient = workflowClient;
+        this.workflowIds = workflowIds;
+        this.readModel = readModel;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(CreateOrderRequest.class);
+        this.concurrency = concurrency;
+        this.flushEvery = flushEvery;
+        this.startScheduler = Schedulers.newBoundedElastic(threads, Integer.MAX_VALUE, "order-start");
+    }
+
+    /**
+     * Workflow id for a submission: derived from the idempotency key when given, else fresh.
+     */
+    public String workflowId(CreateOrderRequest request, String idempotencyKey) {
+        return idempotencyKey != null && !idempotencyKey.isBlank()
+                ? workflowIds.fromIdempotencyKey(request.customerId(), idempotencyKey)
+                : workflowIds.next();
+    }
+
+    /**
+     * Start one order workflow.
+     *
+     * @return false when a workflow with this id already exists (duplicate submission)
+     */
+    public boolean start(CreateOrderRequest request, String workflowId) {
+        WorkflowOptions options = WorkflowOptions.newBuilder()
+                .setTaskQueue(OrderWorkflow.TASK_QUEUE)
+                .setWorkflowId(workflowId)
+                .setWorkflowIdReusePolicy(WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_REJECT_DUPLICATE)
+                .build();
+        OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, options);
+        try {
+            WorkflowClient.start(workflow::processOrder, request, null);
+            return true;
+        } catch (WorkflowExecutionAlreadyStarted e) {
+            log.info("Duplicate submission of workflowId={}, returning the existing run", workflowId);
+            return false;
+        }
+    }
+
+    /**
+     * Wait up to timeout for the workflow to create its order. Long-polls the read model, which
+     * the workflow updates as soon as the order exists when it runs on this worker. It may run
+     * on another worker, whose progress never reaches this read model, so the workflow is also
+     * queried between waits, every 250ms at first and backing off to every 2s, and once more
+     * at the deadline.
+     *
+     * @return the order id, or null if the order is not created yet
+     */
+    public Long awaitOrderId(String workflowId, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CompletableFuture<Long> published = readModel.orderId(workflowId);
+        Duration interval = ORDER_QUERY_FIRST;
+        try {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                try {
+                    return published.get(Math.max(0, Math.min(remaining, interval.toNanos())), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Not published here (yet): ask the workflow
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                } catch (Exception e) {
+                    log.warn("Waiting for the order of {} failed: {}", workflowId, e.getMessage());
+                }
+                Long orderId = queryOrderId(workflowId);
+                if (orderId != null || System.nanoTime() - deadline >= 0) {
+                    return orderId;
+                }
+                interval = interval.multipliedBy(2).compareTo(ORDER_QUERY_MAX) < 0
+                        ? interval.multipliedBy(2) : ORDER_QUERY_MAX;
+            }
+        } finally {
+            if (!published.isDone()) {
+                readModel.stopWaiting(workflowId);
+            }
+        }
+    }
+
+    private Long queryOrderId(String workflowId) {
+        try {
+            return workflowClient.newWorkflowStub(OrderWorkflow.class, workflowId).getOrderId();
+        } catch (Exception e) {
+            log.warn("Failed to query the order of {}: {}", workflowId, e.getMessage());
+            return null;
+        }
+    }
+
+    private record Line(long number, String json) {
+    }
+
+    /**
+     * Start one workflow per non-blank NDJSON line of input, writing one NDJSON result per line
+     * to output: {"line", "success", "workflowId", "duplicate"} or {"line", "success", "error"}.
+     * With an idempotency key, line n is submitted under key "idempotencyKey:n", so replaying
+     * the same import does not place its orders twice.
+     *
+     * @return number of workflows started
+     */
+    public long startAll(InputStream input, OutputStream output, String idempotencyKey) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        AtomicLong lineNumber = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        AtomicLong started = new AtomicLong();
+
+        Flux.fromStream(reader.lines())
+                .map(json -> new Line(lineNumber.incrementAndGet(), json))
+                .filter(line -> !line.json().isBlank())
+                .flatMap(line -> startLine(line, idempotencyKey), concurrency)
+                .doOnNext(result -> {
+                    if (Boolean.TRUE.equals(result.get("success"))) {
+                        started.incrementAndGet();
+                    }
+                    write(output, result, written.incrementAndGet() % flushEvery == 0);
+                })
+                .blockLast();
+
+        flush(output);
+        log.info("Bulk start: {} of {} lines started (idempotency key {})", started.get(), written.get(),
+                idempotencyKey);
+        return started.get();
+    }
+
+    private Mono<Map<String, Object>> startLine(Line line, String idempotencyKey) {
+        return Mono.fromCallable(() -> {
+                    CreateOrderRequest request = requestReader.readValue(line.json());
+                    String workflowId = workflowId(request,
+                            idempotencyKey != null ? idempotencyKey + ":" + line.number() : null);
+                    Map<String, Object> result = result(line, true, "workflowId", workflowId);
+                    if (!start(request, workflowId)) {
+                        result.put("duplicate", true);
+                    }
+                    return result;
+                })
+                .subscribeOn(startScheduler)
+                .onErrorResume(e -> Mono.just(result(line, false, "error", String.valueOf(e.getMessage()))));
+    }
+
+    private static Map<String, Object> result(Line line, boolean success, String key, String value) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("line", line.number());
+        result.put("success", success);
+        result.put(key, value);
+        return result;
+    }
+
+    private void write(OutputStream output, Map<String, Object> result, boolean flush) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+            if (flush) {
+                output.flush();
+            }
+        } catch (IOException e) {
+            // Client went away; stop reading further lines
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(OutputStream output) {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        startScheduler.dispose();
+    }
+}
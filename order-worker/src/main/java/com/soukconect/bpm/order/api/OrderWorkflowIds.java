@@ -0,0 +1,53 @@
+package com.soukconect.bpm.order.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Workflow ids of order workflows.
+ *
+ * With an Idempotency-Key the id is derived from the customer and the key, so a retried
+ * submission maps to the same workflow. Without one, ids come from a per-node counter
+ * seeded from the clock (never repeats on this node, even within a millisecond) plus
+ * the node id (unique across nodes).
+ */
+@Component
+public class OrderWorkflowIds {
+
+    private static final String PREFIX = "order-flow-";
+
+    private final String nodeId;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public OrderWorkflowIds(@Value("${api.node-id:}") String nodeId) {
+        this.nodeId = !nodeId.isBlank() ? nodeId : defaultNodeId();
+    }
+
+    /**
+     * Deterministic id for an idempotent submission.
+     */
+    public String fromIdempotencyKey(Long customerId, String idempotencyKey) {
+        String scope = customerId + ":" + idempotencyKey;
+        return PREFIX + UUID.nameUUIDFromBytes(scope.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fresh id, unique across nodes.
+     */
+    public String next() {
+        long micros = System.currentTimeMillis() * 1000;
+        long value = sequence.updateAndGet(last -> Math.max(last + 1, micros));
+        return PREFIX + Long.toString(value, 36) + "-" + nodeId;
+    }
+
+    // Name of the running JVM, pid@host
+    private static String defaultNodeId() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        return Integer.toString(name.hashCode() & 0x7fffffff, 36);
+    }
+}
@@ -0,0 +1,96 @@
+package com.soukconect.bpm.order.api;
+
+import io.temporal.client.WorkflowClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends a vendor's confirm / reject / ready signals for many orders at once, with bounded
+ * parallelism and a per-signal timeout. Signals go through untyped stubs, so no workflow
+ * proxy is built per order.
+ */
+@Component
+public class VendorActionDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(VendorActionDispatcher.class);
+
+    public enum Action {
+        CONFIRM, REJECT, READY
+    }
+
+    public record VendorAction(String workflowId, Action action, Integer prepTimeMinutes, String notes) {
+    }
+
+    public record ActionResult(int index, String workflowId, boolean success, String error) {
+    }
+
+    private final WorkflowClient workflowClient;
+    private final int parallelism;
+    private final Duration signalTimeout;
+
+    // Signals are blocking gRPC calls; shared and capped across concurrent batches
+    private final Scheduler signalScheduler;
+
+    public VendorActionDispatcher(
+            WorkflowClient workflowClient,
+            @Value("${api.vendor-actions.parallelism:16}") int parallelism,
+            @Value("${api.vendor-actions.signal-timeout-ms:5000}") long signalTimeoutMs,
+            @Value("${api.vendor-actions.threads:64}") int threads) {
+        this.workflowClient = workflowClient;
+        this.parallelism = parallelism;
+        this.signalTimeout = Duration.ofMillis(signalTimeoutMs);
+        this.signalScheduler = Schedulers.newBoundedElastic(threads, Integer.MAX_VALUE, "vendor-signal");
+    }
+
+    /**
+     * One result per action, in request order.
+     */
+    public List<ActionResult> dispatch(Long vendorId, List<VendorAction> actions) {
+        List<ActionResult> results = Flux.range(0, actions.size())
+                .flatMap(i -> send(i, vendorId, actions.get(i)), parallelism)
+                .sort(Comparator.comparingInt(ActionResult::index))
+                .collectList()
+                .block();
+        log.info("Vendor {} batch: {} of {} actions delivered", vendorId,
+                results.stream().filter(ActionResult::success).count(), actions.size());
+        return results;
+    }
+
+    private Mono<ActionResult> send(int index, Long vendorId, VendorAction action) {
+        return Mono.fromRunnable(() -> signal(vendorId, action))
+                .subscribeOn(signalScheduler)
+                .timeout(signalTimeout)
+                .thenReturn(new ActionResult(index, action.workflowId(), true, null))
+                .onErrorResume(e -> Mono.just(new ActionResult(index, action.workflowId(), false,
+                        e instanceof TimeoutException ? "Timed out" : String.valueOf(e.getMessage()))));
+    }
+
+    private void signal(Long vendorId, VendorAction action) {
+        if (action.workflowId() == null || action.action() == null) {
+            throw new IllegalArgumentException("workflowId and action are required");
+        }
+        var stub = workflowClient.newUntypedWorkflowStub(action.workflowId());
+        switch (action.action()) {
+            case CONFIRM -> stub.signal("vendorConfirmed", vendorId, true, action.prepTimeMinutes(), action.notes());
+            case REJECT -> stub.signal("vendorConfirmed", vendorId, false, null, action.notes());
+            case READY -> stub.signal("vendorReady", vendorId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        signalScheduler.dispose();
+    }
+}
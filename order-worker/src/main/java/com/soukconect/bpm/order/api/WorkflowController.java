@@ -1,14 +1,32 @@
 package com.soukconect.bpm.order.api;
 
 import com.soukconect.bpm.common.dto.OrderWorkflowInput;
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
 import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import com.soukconect.bpm.order.readmodel.OrderEventBroadcaster;
+import com.soukconect.bpm.order.readmodel.OrderReadModel;
+import com.soukconect.bpm.order.readmodel.OrderStatusReader;
+import com.soukconect.bpm.order.tracking.DeliveryLocationBuffer;
+import com.soukconect.bpm.order.tracking.LocationPing;
+import com.soukconect.bpm.order.readmodel.OrderView;
 import io.temporal.client.WorkflowClient;
-import io.temporal.client.WorkflowOptions;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,46 +41,90 @@ public class WorkflowController {
     private static final Logger log = LoggerFactory.getLogger(WorkflowController.class);
 
     private final WorkflowClient workflowClient;
-
-    public WorkflowController(WorkflowClient workflowClient) {
+    private final OrderReadModel readModel;
+    private final OrderEventBroadcaster broadcaster;
+    private final OrderStatusReader statusReader;
+    private final OrderStarter orderStarter;
+    private final VendorActionDispatcher vendorActionDispatcher;
+    private final DeliveryLocationBuffer locationBuffer;
+    private final int maxBatchSize;
+    private final int maxVendorActions;
+    private final long maxOrderWaitMs;
+
+    public WorkflowController(WorkflowClient workflowClient, OrderReadModel readModel,
+                              OrderEventBroadcaster broadcaster, OrderStatusReader statusReader,
+                              OrderStarter orderStarter, VendorActionDispatcher vendorActionDispatcher,
+                              DeliveryLocationBuffer locationBuffer,
+                              @Value("${api.status-batch.max-size:1000}") int maxBatchSize,
+                              @Value("${api.vendor-actions.max-size:200}") int maxVendorActions,
+                              @Value("${api.start.max-order-wait-ms:5000}") long maxOrderWaitMs) {
         this.workflowClient = workflowClient;
+        this.orderStarter = orderStarter;
+        this.vendorActionDispatcher = vendorActionDispatcher;
+        this.locationBuffer = locationBuffer;
+        this.readModel = readModel;
+        this.broadcaster = broadcaster;
+        this.statusReader = statusReader;
+        this.maxBatchSize = maxBatchSize;
+        this.maxVendorActions = maxVendorActions;
+        this.maxOrderWaitMs = maxOrderWaitMs;
     }
 
     /**
      * Start an order workflow when user clicks "Place Order" in the UI.
      * 
+     * Retries carrying the same Idempotency-Key get the workflow of the first submission
+     * back (duplicate=true) instead of placing the order again.
+     *
+     * With waitForOrderMs the call also waits (up to api.start.max-order-wait-ms) for the
+     * order to be created and returns its orderId, saving the client a round of polling. The
+     * admission slot is released before that wait; only the start counts towards the limit.
+     *
      * @param request Order details from UI (cart, address, payment)
+     * @param idempotencyKey Optional client key identifying this submission
+     * @param waitForOrderMs How long to wait for the orderId; 0 returns right after the start
      * @return Workflow ID and order ID
      */
     @PostMapping("/start")
     public ResponseEntity<Map<String, Object>> startOrderWorkflow(
-            @RequestBody com.soukconect.bpm.common.dto.CreateOrderRequest request) {
+            @RequestBody com.soukconect.bpm.common.dto.CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestParam(value = "waitForOrderMs", defaultValue = "0") long waitForOrderMs,
+            HttpServletRequest servletRequest) {
 
         log.info("Starting order workflow for customerId: {}", request.customerId());
 
         try {
-            // Build workflow options
-            String workflowId = "order-flow-" + System.currentTimeMillis();
-            WorkflowOptions options = WorkflowOptions.newBuilder()
-                    .setTaskQueue(OrderWorkflow.TASK_QUEUE)
-                    .setWorkflowId(workflowId)
-                    .build();
-
-            // Create workflow stub
-            OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, options);
+            String workflowId = orderStarter.workflowId(request, idempotencyKey);
 
             // Start workflow asynchronously
             // Workflow will create the order first and return the ID eventually if we
             // query,
             // but for async start we just get workflowId
-            WorkflowClient.start(workflow::processOrder, request);
-
-            log.info("Order workflow started: workflowId={}", workflowId);
-
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "workflowId", workflowId,
-                    "message", "Order workflow started successfully (Creation in progress)"));
+            boolean started = orderStarter.start(request, workflowId);
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", true);
+            response.put("workflowId", workflowId);
+            if (started) {
+                log.info("Order workflow started: workflowId={}", workflowId);
+                response.put("message", "Order workflow started successfully (Creation in progress)");
+            } else {
+                response.put("duplicate", true);
+                response.put("message", "Order was already submitted with this Idempotency-Key");
+            }
+
+            if (waitForOrderMs > 0) {
+                AdmissionInterceptor.release(servletRequest);
+                Long orderId = orderStarter.awaitOrderId(workflowId,
+                        Duration.ofMillis(Math.min(waitForOrderMs, maxOrderWaitMs)));
+                response.put("orderId", orderId);
+                if (orderId != null && started) {
+                    response.put("message", "Order created");
+                }
+            }
+
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             log.error("Failed to start order workflow", e);
@@ -72,6 +134,22 @@ public class WorkflowController {
         }
     }
 
+    /**
+     * Start many order workflows from a streamed NDJSON body (one CreateOrderRequest per line).
+     * Lines are parsed and started while the body is still arriving; the response streams one
+     * NDJSON result per line, in completion order, carrying the input line number.
+     * With an Idempotency-Key, re-sending the same import reports its lines as duplicates.
+     */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> startOrderWorkflows(
+            HttpServletRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("Starting bulk order import");
+        StreamingResponseBody body = output -> orderStarter.startAll(request.getInputStream(), output,
+                idempotencyKey);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     /**
      * Send vendor confirmation signal.
      */
@@ -93,6 +171,41 @@ public class WorkflowController {
         }
     }
 
+    /**
+     * Confirm, reject or mark ready many orders of one vendor in one call. Signals are sent
+     * concurrently; the response has one result per action, in request order.
+     *
+     * Each action counts as one signal towards the signal rate limit: admission took one
+     * permit, the rest are taken here, and the whole batch gets 429 when they are not there.
+     */
+    @PostMapping("/vendor-actions:batch")
+    public ResponseEntity<Map<String, Object>> vendorActions(@RequestBody VendorActionsRequest request,
+                                                             HttpServletRequest servletRequest) {
+        List<VendorActionDispatcher.VendorAction> actions = request.actions() != null ? request.actions() : List.of();
+        if (request.vendorId() == null || actions.size() > maxVendorActions) {
+            return ResponseEntity.badRequest().body(Map.of("success", false,
+                    "error", "vendorId and at most " + maxVendorActions + " actions are required"));
+        }
+        AdmissionLimiter.Rejection rejection = AdmissionInterceptor.tryTake(servletRequest, actions.size() - 1);
+        if (rejection != null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()))
+                    .body(Map.of("success", false, "error", "Too many requests (" + rejection.reason() + ")"));
+        }
+
+        log.info("Sending {} vendor actions for vendorId: {}", actions.size(), request.vendorId());
+
+        try {
+            var results = vendorActionDispatcher.dispatch(request.vendorId(), actions);
+            return ResponseEntity.ok(Map.of(
+                    "success", results.stream().allMatch(VendorActionDispatcher.ActionResult::success),
+                    "results", results));
+        } catch (Exception e) {
+            log.error("Failed to send vendor actions", e);
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
     /**
      * Send vendor ready signal.
      */
@@ -114,6 +227,35 @@ public class WorkflowController {
         }
     }
 
+    /**
+     * Live location ping from the delivery partner app. Buffered in memory; the workflow only
+     * gets a deliveryUpdate signal when status or ETA change meaningfully (see DeliveryLocationBuffer).
+     */
+    @PostMapping("/{workflowId}/location")
+    public ResponseEntity<Map<String, Object>> deliveryLocation(
+            @PathVariable String workflowId,
+            @RequestBody DeliveryLocationRequest request) {
+        if (!locationBuffer.ingest(workflowId, new LocationPing(request.status, request.lat, request.lng,
+                request.eta, Instant.now()))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "error", "No running order workflow " + workflowId));
+        }
+        return ResponseEntity.accepted().body(Map.of("success", true));
+    }
+
+    /**
+     * Latest delivery location and recent trail, for trackers (served from memory).
+     */
+    @GetMapping("/{workflowId}/location")
+    public ResponseEntity<Object> getDeliveryLocation(@PathVariable String workflowId) {
+        DeliveryLocationBuffer.Snapshot snapshot = locationBuffer.snapshot(workflowId);
+        if (snapshot == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(snapshot);
+    }
+
     /**
      * Send delivery completed signal.
      */
@@ -157,15 +299,23 @@ public class WorkflowController {
     }
 
     /**
-     * Get workflow status.
+     * Get workflow status, from the read model when known, else by querying the workflow.
      */
     @GetMapping("/{workflowId}/status")
     public ResponseEntity<Map<String, Object>> getOrderStatus(@PathVariable String workflowId) {
+        OrderView view = readModel.get(workflowId);
+        if (view != null && view.status() != null) {
+            return ResponseEntity.ok(Map.of(
+                    "workflowId", workflowId,
+                    "status", view.status()));
+        }
+
         log.info("Querying order status for workflowId: {}", workflowId);
 
         try {
             OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, workflowId);
-            String status = workflow.getStatus();
+            OrderWorkflowStatus status = workflow.getStatus();
+            readModel.refresh(workflowId, status, null);
 
             return ResponseEntity.ok(Map.of(
                     "workflowId", workflowId,
@@ -177,25 +327,65 @@ public class WorkflowController {
     }
 
     /**
-     * Get workflow timeline.
+     * Get workflow timeline, from the read model when known, else by querying the workflow.
      */
     @GetMapping("/{workflowId}/timeline")
     public ResponseEntity<Map<String, Object>> getOrderTimeline(@PathVariable String workflowId) {
+        OrderView view = readModel.get(workflowId);
+        if (view != null && view.timeline() != null) {
+            return ResponseEntity.ok(Map.of(
+                    "workflowId", workflowId,
+                    "timeline", view.events()));
+        }
+
         log.info("Querying order timeline for workflowId: {}", workflowId);
 
         try {
             OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, workflowId);
             var timeline = workflow.getTimeline();
+            readModel.refresh(workflowId, null, timeline);
 
             return ResponseEntity.ok(Map.of(
                     "workflowId", workflowId,
-                    "timeline", timeline));
+                    "timeline", timeline.toEvents()));
         } catch (Exception e) {
             log.error("Failed to query order timeline", e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Status of many workflows in one call (dashboards). Answers with whatever resolved in time:
+     * statuses by workflowId, plus the ids that do not exist, timed out or failed.
+     */
+    @PostMapping("/status:batch")
+    public ResponseEntity<?> getOrderStatuses(@RequestBody StatusBatchRequest request) {
+        List<String> workflowIds = request.workflowIds() != null ? request.workflowIds() : List.of();
+        if (workflowIds.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "At most " + maxBatchSize + " workflowIds per batch"));
+        }
+
+        try {
+            return ResponseEntity.ok(statusReader.readStatuses(workflowIds));
+        } catch (Exception e) {
+            log.error("Failed to read order statuses", e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream status and timeline changes as Server-Sent Events: a "snapshot" when the order is
+     * known, then "status" and "timeline" events, and "resync" when the client fell behind and
+     * events were dropped (re-read the timeline). The stream ends once the order is final.
+     */
+    @GetMapping(value = "/{workflowId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable String workflowId) {
+        log.debug("Subscribing to order events for workflowId: {} ({} open streams)",
+                workflowId, broadcaster.getSubscriberCount());
+        return broadcaster.subscribe(workflowId, () -> readModel.get(workflowId));
+    }
+
     // ============== DTOs ==============
 
     public record VendorConfirmationRequest(
@@ -205,11 +395,27 @@ public class WorkflowController {
             String notes) {
     }
 
+    public record DeliveryLocationRequest(
+            String status,
+            Double lat,
+            Double lng,
+            LocalDateTime eta) {
+    }
+
     public record DeliveryCompletedRequest(
             String proofUrl,
             String signature) {
     }
 
+    public record VendorActionsRequest(
+            Long vendorId,
+            List<VendorActionDispatcher.VendorAction> actions) {
+    }
+
+    public record StatusBatchRequest(
+            List<String> workflowIds) {
+    }
+
     public record CancelOrderRequest(
             String reason,
             boolean refundRequested) {
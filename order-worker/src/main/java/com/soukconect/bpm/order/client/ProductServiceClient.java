@@ -1,11 +1,18 @@
 package com.soukconect.bpm.order.client;
 
+import com.soukconect.bpm.common.dto.OrderLine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,9 +23,14 @@ public class ProductServiceClient {
 
     private static final Logger log = LoggerFactory.getLogger(ProductServiceClient.class);
 
+    private static final Duration BATCH_REPROBE_INTERVAL = Duration.ofMinutes(10);
+
     private final RestTemplate restTemplate;
     private final String baseUrl;
 
+    private volatile long batchUnsupportedUntil = 0;
+    private volatile long vendorBatchUnsupportedUntil = 0;
+
     public ProductServiceClient(
             RestTemplate restTemplate,
             @Value("${services.product.url:http://localhost:8082}") String baseUrl) {
@@ -55,6 +67,60 @@ public class ProductServiceClient {
         restTemplate.postForObject(url, request, Void.class);
     }
 
+    /**
+     * Reserve all lines in one call; product-service applies it atomically, so an error
+     * response means nothing was reserved. A batch resent with the same idempotency key
+     * gets the outcome of the first one instead of being applied twice.
+     *
+     * @return false if product-service has no batch endpoint or rejected the batch
+     *         (callers fall back to per-item calls to learn the outcome of each line)
+     */
+    public boolean reserveStockBatch(Long orderId, List<OrderLine> lines, String idempotencyKey) {
+        return postBatch("/products/stock/reservations", orderId, lines, idempotencyKey);
+    }
+
+    /**
+     * Release all lines in one call.
+     *
+     * @return false if product-service has no batch endpoint or rejected the batch
+     *         (callers fall back to per-item calls)
+     */
+    public boolean releaseStockBatch(Long orderId, List<OrderLine> lines) {
+        return postBatch("/products/stock/releases", orderId, lines, null);
+    }
+
+    private boolean postBatch(String path, Long orderId, List<OrderLine> lines, String idempotencyKey) {
+        if (System.currentTimeMillis() < batchUnsupportedUntil) {
+            return false;
+        }
+        String url = baseUrl + path;
+        log.debug("POST {} orderId={} items={}", url, orderId, lines.size());
+
+        List<Map<String, Object>> items = lines.stream()
+                .map(line -> Map.<String, Object>of("productId", line.productId(), "quantity", line.quantity()))
+                .toList();
+        Map<String, Object> request = new HashMap<>(Map.of("orderId", orderId, "items", items));
+        if (idempotencyKey != null) {
+            request.put("idempotencyKey", idempotencyKey);
+        }
+        try {
+            restTemplate.postForObject(url, request, Void.class);
+            return true;
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed
+                 | HttpServerErrorException.NotImplemented e) {
+            // Older product-service: don't probe again on every order
+            log.info("Batch endpoint {} unavailable ({}), using per-item calls for {} min",
+                    url, e.getStatusCode().value(), BATCH_REPROBE_INTERVAL.toMinutes());
+            batchUnsupportedUntil = System.currentTimeMillis() + BATCH_REPROBE_INTERVAL.toMillis();
+            return false;
+        } catch (HttpStatusCodeException e) {
+            // e.g. one line out of stock: the batch is all-or-nothing, per-item calls tell which lines fail
+            log.warn("Batch {} for order {} rejected ({}), using per-item calls",
+                    url, orderId, e.getStatusCode().value());
+            return false;
+        }
+    }
+
     public Long getVendorId(Long productId) {
         String url = baseUrl + "/products/" + productId;
         log.debug("GET {}", url);
@@ -65,4 +131,36 @@ public class ProductServiceClient {
         }
         return null;
     }
+
+    /**
+     * Vendor of each product in one call.
+     *
+     * @return productId to vendorId, or null if product-service has no batch lookup endpoint
+     */
+    public Map<Long, Long> getVendorIds(List<Long> productIds) {
+        if (System.currentTimeMillis() < vendorBatchUnsupportedUntil) {
+            return null;
+        }
+        String url = baseUrl + "/products/vendors/lookup";
+        log.debug("POST {} products={}", url, productIds.size());
+
+        try {
+            Map<String, Object> response = restTemplate.postForObject(url, Map.of("productIds", productIds), Map.class);
+            Map<Long, Long> vendors = new HashMap<>();
+            if (response != null) {
+                response.forEach((productId, vendorId) -> {
+                    if (vendorId != null) {
+                        vendors.put(Long.valueOf(productId), ((Number) vendorId).longValue());
+                    }
+                });
+            }
+            return vendors;
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed
+                 | HttpServerErrorException.NotImplemented e) {
+            log.info("Batch endpoint {} unavailable ({}), using per-product lookups for {} min",
+                    url, e.getStatusCode().value(), BATCH_REPROBE_INTERVAL.toMinutes());
+            vendorBatchUnsupportedUntil = System.currentTimeMillis() + BATCH_REPROBE_INTERVAL.toMillis();
+            return null;
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.soukconect.bpm.order.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps products to vendors with a bounded, TTL-evicting in-process cache in front of
+ * product-service. Misses are looked up in one batch call, falling back to
+ * bounded-parallel GET /products/{id} when the batch endpoint is unavailable.
+ */
+@Component
+public class ProductVendorResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductVendorResolver.class);
+
+    private final ProductServiceClient productServiceClient;
+    private final ReactiveProductServiceClient reactiveProductServiceClient;
+    private final int lookupParallelism;
+    private final BoundedTtlCache<Long, Long> cache;
+
+    public ProductVendorResolver(
+            ProductServiceClient productServiceClient,
+            ReactiveProductServiceClient reactiveProductServiceClient,
+            @Value("${services.product.vendor-lookup-parallelism:8}") int lookupParallelism,
+            @Value("${services.product.vendor-cache.max-size:10000}") int maxSize,
+            @Value("${services.product.vendor-cache.ttl-minutes:30}") int ttlMinutes) {
+        this.productServiceClient = productServiceClient;
+        this.reactiveProductServiceClient = reactiveProductServiceClient;
+        this.lookupParallelism = lookupParallelism;
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * Vendor of each product. Products without a known vendor are absent from the result.
+     */
+    public Map<Long, Long> resolve(Collection<Long> productIds) {
+        Map<Long, Long> vendors = new HashMap<>();
+        List<Long> misses = productIds.stream()
+                .distinct()
+                .filter(productId -> {
+                    Long vendorId = cache.get(productId);
+                    if (vendorId != null) {
+                        vendors.put(productId, vendorId);
+                    }
+                    return vendorId == null;
+                })
+                .toList();
+
+        log.debug("Vendor lookup: {} cached, {} to fetch", vendors.size(), misses.size());
+        if (!misses.isEmpty()) {
+            Map<Long, Long> fetched = fetch(misses);
+            fetched.forEach(cache::put);
+            vendors.putAll(fetched);
+        }
+        return vendors;
+    }
+
+    private Map<Long, Long> fetch(List<Long> productIds) {
+        Map<Long, Long> batch = productServiceClient.getVendorIds(productIds);
+        if (batch != null) {
+            return batch;
+        }
+        return Flux.fromIterable(productIds)
+                .flatMap(productId -> reactiveProductServiceClient.getVendorId(productId)
+                        .map(vendorId -> Map.entry(productId, vendorId))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to look up vendor of product {}: {}", productId, e.getMessage());
+                            return Mono.empty();
+                        }), lookupParallelism)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    /**
+     * LRU map capped at maxSize whose entries expire ttl after being written.
+     */
+    static final class BoundedTtlCache<K, V> {
+
+        private record Entry<V>(V value, long expiresAtNanos) {
+        }
+
+        private final Duration ttl;
+        private final LinkedHashMap<K, Entry<V>> entries;
+
+        BoundedTtlCache(int maxSize, Duration ttl) {
+            this.ttl = ttl;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized V get(K key) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(K key, V value) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.soukconect.bpm.order.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking REST client for customer-service.
+ * Used by activities that complete asynchronously; see {@link CustomerServiceClient} for the blocking variant.
+ */
+@Component
+public class ReactiveCustomerServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCustomerServiceClient.class);
+
+    private final WebClient webClient;
+    private final String baseUrl;
+
+    public ReactiveCustomerServiceClient(
+            WebClient webClient,
+            @Value("${services.customer.url:http://localhost:8084}") String baseUrl) {
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+    }
+
+    public Mono<Void> sendNotification(Long customerId, String title, String message) {
+        String url = baseUrl + "/customers/" + customerId + "/notifications";
+        log.debug("POST {}", url);
+
+        Map<String, String> notification = Map.of(
+                "title", title,
+                "message", message
+        );
+
+        return webClient.post()
+                .uri(url)
+                .bodyValue(notification)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .doOnSuccess(v -> log.info("Customer {} notified: {}", customerId, title))
+                .onErrorResume(e -> {
+                    log.warn("Failed to notify customer {}: {}", customerId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,62 @@
+package com.soukconect.bpm.order.client;
+
+import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.dto.OrderDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking REST client for order-service.
+ * Used by activities that complete asynchronously; see {@link OrderServiceClient} for the blocking variant.
+ */
+@Component
+public class ReactiveOrderServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderServiceClient.class);
+
+    private final WebClient webClient;
+    private final String baseUrl;
+
+    public ReactiveOrderServiceClient(
+            WebClient webClient,
+            @Value("${services.order.url:http://localhost:8081}") String baseUrl) {
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+    }
+
+    public Mono<OrderDto> getOrder(Long orderId) {
+        String url = baseUrl + "/orders/" + orderId;
+        log.debug("GET {}", url);
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(OrderDto.class);
+    }
+
+    public Mono<Void> updateStatus(Long orderId, String status) {
+        String url = baseUrl + "/orders/" + orderId + "/status";
+        log.debug("PATCH {} status={}", url, status);
+
+        return webClient.patch()
+                .uri(url)
+                .bodyValue(Map.of("status", status))
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+
+    public Mono<OrderDto> createOrder(CreateOrderRequest request) {
+        String url = baseUrl + "/orders";
+        log.debug("POST {}", url);
+        return webClient.post()
+                .uri(url)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(OrderDto.class);
+    }
+}
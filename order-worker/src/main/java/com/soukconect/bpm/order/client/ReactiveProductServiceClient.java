@@ -0,0 +1,62 @@
+package com.soukconect.bpm.order.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking REST client for product-service.
+ * Used for bounded-parallel per-item stock calls; see {@link ProductServiceClient} for the blocking variant.
+ */
+@Component
+public class ReactiveProductServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProductServiceClient.class);
+
+    private final WebClient webClient;
+    private final String baseUrl;
+
+    public ReactiveProductServiceClient(
+            WebClient webClient,
+            @Value("${services.product.url:http://localhost:8082}") String baseUrl) {
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+    }
+
+    public Mono<Void> reserveStock(Long productId, Integer quantity) {
+        String url = baseUrl + "/products/" + productId + "/reserve";
+        log.debug("POST {} quantity={}", url, quantity);
+        return post(url, quantity);
+    }
+
+    public Mono<Void> releaseStock(Long productId, Integer quantity) {
+        String url = baseUrl + "/products/" + productId + "/release";
+        log.debug("POST {} quantity={}", url, quantity);
+        return post(url, quantity);
+    }
+
+    public Mono<Long> getVendorId(Long productId) {
+        String url = baseUrl + "/products/" + productId;
+        log.debug("GET {}", url);
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .flatMap(product -> product.get("vendorId") instanceof Number vendorId
+                        ? Mono.just(vendorId.longValue())
+                        : Mono.empty());
+    }
+
+    private Mono<Void> post(String url, Integer quantity) {
+        return webClient.post()
+                .uri(url)
+                .bodyValue(Map.of("quantity", quantity))
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+}
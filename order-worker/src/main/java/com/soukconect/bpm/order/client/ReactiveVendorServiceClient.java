@@ -0,0 +1,75 @@
+package com.soukconect.bpm.order.client;
+
+import com.soukconect.bpm.common.dto.OrderWorkflowInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking REST client for vendor-service.
+ * Used by activities that complete asynchronously; see {@link VendorServiceClient} for the blocking variant.
+ */
+@Component
+public class ReactiveVendorServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveVendorServiceClient.class);
+
+    private final WebClient webClient;
+    private final String baseUrl;
+
+    public ReactiveVendorServiceClient(
+            WebClient webClient,
+            @Value("${services.vendor.url:http://localhost:8083}") String baseUrl) {
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Errors are propagated so the caller can record the vendor as not notified.
+     */
+    public Mono<Void> notifyNewOrder(Long vendorId, OrderWorkflowInput order) {
+        String url = baseUrl + "/vendors/" + vendorId + "/notifications";
+        log.debug("POST {}", url);
+
+        Map<String, Object> notification = Map.of(
+                "type", "NEW_ORDER",
+                "orderId", order.orderId(),
+                "totalAmount", order.totalAmount(),
+                "itemCount", order.items().size()
+        );
+
+        return post(url, notification)
+                .doOnSuccess(v -> log.info("Vendor {} notified of new order {}", vendorId, order.orderId()));
+    }
+
+    public Mono<Void> notifyCancellation(Long vendorId, Long orderId, String reason) {
+        String url = baseUrl + "/vendors/" + vendorId + "/notifications";
+        log.debug("POST {} (cancellation)", url);
+
+        Map<String, Object> notification = Map.of(
+                "type", "ORDER_CANCELLED",
+                "orderId", orderId,
+                "reason", reason
+        );
+
+        return post(url, notification)
+                .doOnSuccess(v -> log.info("Vendor {} notified of order {} cancellation", vendorId, orderId))
+                .onErrorResume(e -> {
+                    log.warn("Failed to notify vendor {} of cancellation: {}", vendorId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> post(String url, Map<String, Object> body) {
+        return webClient.post()
+                .uri(url)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+}
@@ -7,25 +7,62 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Configuration for activity timeouts and retries.
  * Loaded from application.yml and can be controlled per environment.
+ *
+ * Every OrderActivities method belongs to one of the groups below (see {@link #DEFAULT_METHOD_GROUPS});
+ * individual methods can be moved to another group or tuned under workflow.activities.methods,
+ * keyed by activity type (e.g. ProcessPayment). Applied to OrderWorkflowImpl at worker registration.
  */
 @Configuration
 @ConfigurationProperties(prefix = "workflow.activities")
 @Data
 public class ActivityConfig {
 
+    /** Group of each activity type unless overridden in {@link #methods}; unlisted types use standard. */
+    public static final Map<String, String> DEFAULT_METHOD_GROUPS = Map.ofEntries(
+            Map.entry("CreateOrder", "standard"),
+            Map.entry("ResolveVendors", "standard"),
+            Map.entry("ValidateOrder", "standard"),
+            Map.entry("ReserveInventory", "inventory"),
+            Map.entry("ReleaseInventory", "inventory"),
+            Map.entry("ConfirmReservation", "inventory"),
+            Map.entry("CaptureDeliveryProof", "standard"),
+            Map.entry("UpdateOrderStatus", "standard"),
+            Map.entry("ProcessPayment", "payment"),
+            Map.entry("RefundPayment", "payment"),
+            Map.entry("AssignDeliveryPartner", "payment"),
+            Map.entry("CancelDeliveryAssignment", "payment"),
+            Map.entry("TrackDelivery", "tracking"),
+            Map.entry("NotifyVendors", "notification"),
+            Map.entry("NotifyVendorCancellation", "notification"),
+            Map.entry("SendDeliveryNotification", "notification"),
+            Map.entry("TriggerReviewRequest", "notification"));
+
     private ActivitySettings standard = new ActivitySettings(30, 3);
     private ActivitySettings payment = new ActivitySettings(60, 3);
     private ActivitySettings tracking = new ActivitySettings(300, 3);
-    private ActivitySettings notification = new ActivitySettings(30, 5);
+    private ActivitySettings notification = new ActivitySettings(30, 5, 5000, 30);
+    /** Chunked, heartbeating stock calls: a stalled attempt is detected by the heartbeat timeout. */
+    private ActivitySettings inventory = new ActivitySettings(600, 5, 20);
+
+    /** Per activity type overrides; unset fields inherit from the method's group. */
+    private Map<String, MethodSettings> methods = new HashMap<>();
 
     @Data
     public static class ActivitySettings {
         private int timeoutSeconds;
         private int maxAttempts;
+        private long initialIntervalMs = 1000;
+        private int maximumIntervalSeconds = 30;
+        private double backoffCoefficient = 2.0;
+        /** 0 disables heartbeat timeouts. */
+        private int heartbeatTimeoutSeconds = 0;
 
         public ActivitySettings() {
         }
@@ -35,16 +72,53 @@ public class ActivityConfig {
             this.maxAttempts = maxAttempts;
         }
 
+        public ActivitySettings(int timeoutSeconds, int maxAttempts, int heartbeatTimeoutSeconds) {
+            this(timeoutSeconds, maxAttempts);
+            this.heartbeatTimeoutSeconds = heartbeatTimeoutSeconds;
+        }
+
+        public ActivitySettings(int timeoutSeconds, int maxAttempts, long initialIntervalMs, int maximumIntervalSeconds) {
+            this(timeoutSeconds, maxAttempts);
+            this.initialIntervalMs = initialIntervalMs;
+            this.maximumIntervalSeconds = maximumIntervalSeconds;
+        }
+
         public ActivityOptions toActivityOptions() {
-            return ActivityOptions.newBuilder()
+            ActivityOptions.Builder builder = ActivityOptions.newBuilder()
                     .setStartToCloseTimeout(Duration.ofSeconds(timeoutSeconds))
                     .setRetryOptions(RetryOptions.newBuilder()
-                            .setInitialInterval(Duration.ofSeconds(1))
-                            .setMaximumInterval(Duration.ofSeconds(30))
-                            .setBackoffCoefficient(2.0)
+                            .setInitialInterval(Duration.ofMillis(initialIntervalMs))
+                            .setMaximumInterval(Duration.ofSeconds(maximumIntervalSeconds))
+                            .setBackoffCoefficient(backoffCoefficient)
                             .setMaximumAttempts(maxAttempts)
-                            .build())
-                    .build();
+                            .build());
+            if (heartbeatTimeoutSeconds > 0) {
+                builder.setHeartbeatTimeout(Duration.ofSeconds(heartbeatTimeoutSeconds));
+            }
+            return builder.build();
+        }
+    }
+
+    @Data
+    public static class MethodSettings {
+        /** standard, payment, tracking, notification or inventory. */
+        private String group;
+        private Integer timeoutSeconds;
+        private Integer maxAttempts;
+        private Long initialIntervalMs;
+        private Integer maximumIntervalSeconds;
+        private Double backoffCoefficient;
+        private Integer heartbeatTimeoutSeconds;
+
+        ActivitySettings applyTo(ActivitySettings base) {
+            ActivitySettings merged = new ActivitySettings();
+            merged.setTimeoutSeconds(timeoutSeconds != null ? timeoutSeconds : base.getTimeoutSeconds());
+            merged.setMaxAttempts(maxAttempts != null ? maxAttempts : base.getMaxAttempts());
+            merged.setInitialIntervalMs(initialIntervalMs != null ? initialIntervalMs : base.getInitialIntervalMs());
+            merged.setMaximumIntervalSeconds(maximumIntervalSeconds != null ? maximumIntervalSeconds : base.getMaximumIntervalSeconds());
+            merged.setBackoffCoefficient(backoffCoefficient != null ? backoffCoefficient : base.getBackoffCoefficient());
+            merged.setHeartbeatTimeoutSeconds(heartbeatTimeoutSeconds != null ? heartbeatTimeoutSeconds : base.getHeartbeatTimeoutSeconds());
+            return merged;
         }
     }
 
@@ -63,4 +137,36 @@ public class ActivityConfig {
     public ActivityOptions getNotificationOptions() {
         return notification.toActivityOptions();
     }
+
+    public ActivityOptions getInventoryOptions() {
+        return inventory.toActivityOptions();
+    }
+
+    /**
+     * Options per activity type, for WorkflowImplementationOptions.setActivityOptions.
+     */
+    public Map<String, ActivityOptions> getMethodOptions() {
+        Map<String, String> groups = new LinkedHashMap<>(DEFAULT_METHOD_GROUPS);
+        methods.forEach((type, settings) -> groups.putIfAbsent(type, "standard"));
+
+        Map<String, ActivityOptions> options = new LinkedHashMap<>();
+        groups.forEach((type, defaultGroup) -> {
+            MethodSettings override = methods.get(type);
+            String group = override != null && override.getGroup() != null ? override.getGroup() : defaultGroup;
+            ActivitySettings settings = group(group);
+            options.put(type, (override != null ? override.applyTo(settings) : settings).toActivityOptions());
+        });
+        return options;
+    }
+
+    private ActivitySettings group(String name) {
+        return switch (name) {
+            case "standard" -> standard;
+            case "payment" -> payment;
+            case "tracking" -> tracking;
+            case "notification" -> notification;
+            case "inventory" -> inventory;
+            default -> throw new IllegalArgumentException("Unknown activity group: " + name);
+        };
+    }
 }
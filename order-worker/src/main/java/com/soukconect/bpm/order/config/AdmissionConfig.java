@@ -0,0 +1,48 @@
+package com.soukconect.bpm.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Admission control of the workflow API: limits on concurrent requests and request rate,
+ * separately for workflow starts and for signals. Requests over a limit get 429 with Retry-After.
+ * Loaded from application.yml under api.admission.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "api.admission")
+@Data
+public class AdmissionConfig {
+
+    private Limits start = new Limits(200, 500, 1000);
+    private Limits signal = new Limits(400, 2000, 4000);
+
+    @Data
+    public static class Limits {
+        private boolean enabled = true;
+
+        /** Requests in flight; the upper bound of the adaptive limit. */
+        private int maxConcurrent;
+
+        /** Token bucket refill rate; 0 disables rate limiting. */
+        private double permitsPerSecond;
+        private int burst;
+
+        /** Shrink the concurrency limit while Temporal calls are slower than targetLatencyMs. */
+        private boolean adaptive = false;
+        private long targetLatencyMs = 250;
+        private int minConcurrent = 10;
+
+        /** Retry-After sent when rejected on concurrency. */
+        private int retryAfterSeconds = 1;
+
+        public Limits() {
+        }
+
+        public Limits(int maxConcurrent, double permitsPerSecond, int burst) {
+            this.maxConcurrent = maxConcurrent;
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+}
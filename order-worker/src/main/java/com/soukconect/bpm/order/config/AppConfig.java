@@ -1,24 +1,221 @@
 package com.soukconect.bpm.order.config;
 
+import com.soukconect.bpm.common.worker.TemporalConnection;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import io.temporal.client.ActivityCompletionClient;
 import io.temporal.client.WorkflowClient;
 import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 @Configuration
 public class AppConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(AppConfig.class);
+
     @Bean
-    public RestTemplate restTemplate() {
-        // Use Apache HttpClient 5 for PATCH support
-        org.springframework.http.client.HttpComponentsClientHttpRequestFactory factory = new org.springframework.http.client.HttpComponentsClientHttpRequestFactory();
-        return new RestTemplate(factory);
+    public PoolingHttpClientConnectionManager httpConnectionManager(HttpClientConfig config, Environment env) {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxTotalConnections())
+                .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(config.getReadTimeoutMs()))
+                        .setTimeToLive(TimeValue.ofSeconds(config.getConnectionTimeToLiveSeconds()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(config.getValidateAfterInactivityMs()))
+                        .build())
+                .build();
+
+        // Several services may share a host (e.g. vendor and payment); keep the largest limit
+        Map<HttpRoute, Integer> limits = new LinkedHashMap<>();
+        resolveRoutes(config, env).forEach((service, route) ->
+                limits.merge(route, config.getRoutes().get(service).getMaxConnections(), Math::max));
+        limits.forEach((route, max) -> {
+            manager.setMaxPerRoute(route, max);
+            log.info("HTTP pool route {}: max {} connections", route.getTargetHost(), max);
+        });
+
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager, HttpClientConfig config) {
+        TimeValue maxKeepAlive = TimeValue.ofSeconds(config.getKeepAliveSeconds());
+
+        // Honour the server's Keep-Alive header but never hold a connection longer than configured
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            TimeValue serverValue = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(serverValue) && serverValue.compareTo(maxKeepAlive) < 0
+                    ? serverValue
+                    : maxKeepAlive;
+        };
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getConnectionRequestTimeoutMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(config.getReadTimeoutMs()))
+                        .setConnectionKeepAlive(maxKeepAlive)
+                        .build())
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(config.getIdleEvictionSeconds()))
+                .build();
     }
 
     @Bean
-    public WorkflowClient workflowClient() {
-        WorkflowServiceStubs serviceStubs = WorkflowServiceStubs.newLocalServiceStubs();
-        return WorkflowClient.newInstance(serviceStubs);
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        // Use Apache HttpClient 5 for PATCH support and connection pooling
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Non-blocking client on Reactor Netty: in-flight calls are multiplexed on a
+     * small event-loop pool instead of holding one thread each. Pool sizing and
+     * timeouts follow the same services.http settings as the RestTemplate;
+     * pool metrics are published under reactor.netty.connection.provider.*.
+     */
+    @Bean
+    public WebClient webClient(WebClient.Builder builder, HttpClientConfig config, Environment env) {
+        ConnectionProvider.Builder provider = ConnectionProvider.builder("service-clients")
+                .maxConnections(config.getMaxConnectionsPerRoute())
+                .pendingAcquireMaxCount(config.getMaxPendingAcquires())
+                .pendingAcquireTimeout(Duration.ofMillis(config.getConnectionRequestTimeoutMs()))
+                .maxIdleTime(Duration.ofSeconds(config.getKeepAliveSeconds()))
+                .maxLifeTime(Duration.ofSeconds(config.getConnectionTimeToLiveSeconds()))
+                .evictInBackground(Duration.ofSeconds(config.getIdleEvictionSeconds()))
+                .metrics(true);
+
+        resolveRoutes(config, env).forEach((service, route) -> {
+            HttpHost host = route.getTargetHost();
+            provider.forRemoteHost(InetSocketAddress.createUnresolved(host.getHostName(), host.getPort()),
+                    spec -> spec.maxConnections(config.getRoutes().get(service).getMaxConnections()));
+        });
+
+        HttpClient httpClient = HttpClient.create(provider.build())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(config.getReadTimeoutMs()))
+                .keepAlive(true);
+
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    /**
+     * Pool saturation gauges (leased / pending / available / max), in total and
+     * per configured service route. Exposed via /actuator/metrics.
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager,
+                                             HttpClientConfig config, Environment env) {
+        Map<String, HttpRoute> routes = resolveRoutes(config, env);
+        return registry -> {
+            registerPoolGauges(registry, "all", connectionManager, PoolingHttpClientConnectionManager::getTotalStats);
+            routes.forEach((service, route) -> registerPoolGauges(registry, service, connectionManager,
+                    m -> m.getStats(route)));
+        };
+    }
+
+    /**
+     * One gRPC channel to the Temporal frontend, shared by the REST API and the worker
+     * (unless temporal.server.dedicated-worker-channel is set).
+     */
+    @Bean
+    @Primary
+    public WorkflowServiceStubs workflowServiceStubs(TemporalServerConfig config) {
+        WorkflowServiceStubsOptions options = config.toServiceStubsOptions();
+        log.info("Temporal service stubs: {}", TemporalConnection.describe(options));
+        return WorkflowServiceStubs.newServiceStubs(options);
+    }
+
+    @Bean
+    public WorkflowServiceStubs workerServiceStubs(TemporalServerConfig config, WorkflowServiceStubs workflowServiceStubs) {
+        if (!config.isDedicatedWorkerChannel()) {
+            return workflowServiceStubs;
+        }
+        log.info("Worker uses a dedicated gRPC channel to {}", config.getAddress());
+        return config.newServiceStubs();
+    }
+
+    @Bean
+    @Primary
+    public WorkflowClient workflowClient(TemporalServerConfig config, WorkflowServiceStubs workflowServiceStubs) {
+        return config.newWorkflowClient(workflowServiceStubs);
+    }
+
+    @Bean
+    public WorkflowClient workerWorkflowClient(TemporalServerConfig config,
+                                               @Qualifier("workerServiceStubs") WorkflowServiceStubs workerServiceStubs) {
+        return config.newWorkflowClient(workerServiceStubs);
+    }
+
+    @Bean
+    public ActivityCompletionClient activityCompletionClient(@Qualifier("workerWorkflowClient") WorkflowClient workerWorkflowClient) {
+        return workerWorkflowClient.newActivityCompletionClient();
+    }
+
+    private static void registerPoolGauges(MeterRegistry registry, String service,
+                                           PoolingHttpClientConnectionManager manager,
+                                           Function<PoolingHttpClientConnectionManager, PoolStats> stats) {
+        Map<String, ToDoubleFunction<PoolingHttpClientConnectionManager>> gauges = Map.of(
+                "leased", m -> stats.apply(m).getLeased(),
+                "pending", m -> stats.apply(m).getPending(),
+                "available", m -> stats.apply(m).getAvailable(),
+                "max", m -> stats.apply(m).getMax());
+
+        gauges.forEach((name, fn) -> Gauge.builder("http.client.pool." + name, manager, fn)
+                .tag("service", service)
+                .description("HTTP client connection pool " + name + " connections")
+                .register(registry));
+    }
+
+    private static Map<String, HttpRoute> resolveRoutes(HttpClientConfig config, Environment env) {
+        Map<String, HttpRoute> routes = new LinkedHashMap<>();
+        config.getRoutes().keySet().forEach(service -> {
+            String url = env.getProperty("services." + service + ".url");
+            if (url == null) {
+                log.warn("No services.{}.url configured, ignoring HTTP pool route override", service);
+                return;
+            }
+            URI uri = URI.create(url);
+            int port = uri.getPort() != -1 ? uri.getPort() : ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+            routes.put(service, new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port)));
+        });
+        return routes;
     }
 }
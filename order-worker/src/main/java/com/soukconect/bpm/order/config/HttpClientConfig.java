@@ -0,0 +1,61 @@
+package com.soukconect.bpm.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for the HTTP clients shared by all
+ * service clients (order, product, vendor, customer, payment): the blocking
+ * RestTemplate and the non-blocking WebClient.
+ * Loaded from application.yml under services.http.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "services.http")
+@Data
+public class HttpClientConfig {
+
+    /** Max connections across all downstream hosts. */
+    private int maxTotalConnections = 200;
+
+    /** Max connections per host unless overridden in {@link #routes}. */
+    private int maxConnectionsPerRoute = 50;
+
+    /** TCP connect timeout. */
+    private int connectTimeoutMs = 2000;
+
+    /** Socket / response read timeout. */
+    private int readTimeoutMs = 10000;
+
+    /** Max time to wait for a free connection from the pool. */
+    private int connectionRequestTimeoutMs = 1000;
+
+    /** Requests allowed to queue for a connection in the non-blocking (WebClient) pool, per host. */
+    private int maxPendingAcquires = 2000;
+
+    /** Keep-alive used when the server sends none; also caps server-provided values. */
+    private int keepAliveSeconds = 30;
+
+    /** Idle connections older than this are evicted by the background evictor. */
+    private int idleEvictionSeconds = 60;
+
+    /** Hard limit on the lifetime of a pooled connection. */
+    private int connectionTimeToLiveSeconds = 300;
+
+    /** Re-validate pooled connections idle for longer than this before reuse. */
+    private int validateAfterInactivityMs = 2000;
+
+    /**
+     * Per-service overrides keyed by service name (order, product, vendor, ...).
+     * The host is resolved from services.{name}.url.
+     */
+    private Map<String, RouteSettings> routes = new HashMap<>();
+
+    @Data
+    public static class RouteSettings {
+        private int maxConnections;
+    }
+}
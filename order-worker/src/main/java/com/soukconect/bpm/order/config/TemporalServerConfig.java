@@ -0,0 +1,14 @@
+package com.soukconect.bpm.order.config;
+
+import com.soukconect.bpm.common.worker.TemporalConnection;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Temporal frontend connection (target, keepalive, message size, RPC timeouts).
+ * Loaded from application.yml under temporal.server.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "temporal.server")
+public class TemporalServerConfig extends TemporalConnection {
+}
@@ -0,0 +1,37 @@
+package com.soukconect.bpm.order.config;
+
+import com.soukconect.bpm.order.api.AdmissionInterceptor;
+import com.soukconect.bpm.order.api.AdmissionLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Admission control on the workflow start and signal endpoints (see {@link AdmissionConfig}).
+ * Bulk imports are not limited here; they pace themselves with api.bulk-start.concurrency.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final String ORDERS = "/api/workflows/orders";
+
+    private final AdmissionConfig admissionConfig;
+    private final MeterRegistry meterRegistry;
+
+    public WebConfig(AdmissionConfig admissionConfig, MeterRegistry meterRegistry) {
+        this.admissionConfig = admissionConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(
+                        new AdmissionLimiter("start", admissionConfig.getStart(), meterRegistry)))
+                .addPathPatterns(ORDERS + "/start");
+        registry.addInterceptor(new AdmissionInterceptor(
+                        new AdmissionLimiter("signal", admissionConfig.getSignal(), meterRegistry)))
+                .addPathPatterns(ORDERS + "/*/vendor-confirmed", ORDERS + "/*/vendor-ready",
+                        ORDERS + "/*/delivery-completed", ORDERS + "/*/cancel", ORDERS + "/vendor-actions:batch");
+    }
+}
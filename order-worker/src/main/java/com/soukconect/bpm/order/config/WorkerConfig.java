@@ -0,0 +1,14 @@
+package com.soukconect.bpm.order.config;
+
+import com.soukconect.bpm.common.worker.WorkerTuning;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Temporal worker tuning (pollers, concurrency, rate limits, sticky cache).
+ * Loaded from application.yml under temporal.worker and applied per task queue.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "temporal.worker")
+public class WorkerConfig extends WorkerTuning {
+}
@@ -0,0 +1,25 @@
+package com.soukconect.bpm.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * History limits of OrderWorkflow: past either one (or when the server suggests it) a run
+ * waiting on delivery continues as new with a state snapshot, keeping replays cheap.
+ * Also caps the order timeline. Loaded from application.yml under workflow.history.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "workflow.history")
+@Data
+public class WorkflowHistoryConfig {
+
+    private int maxEvents = 10000;
+    private int maxSizeMb = 10;
+    /** Timeline entries kept in workflow state (and read model views); older ones are summarized. */
+    private int maxTimelineEntries = 50;
+
+    public long getMaxSizeBytes() {
+        return maxSizeMb * 1024L * 1024L;
+    }
+}
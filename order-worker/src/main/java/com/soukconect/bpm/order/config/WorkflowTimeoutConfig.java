@@ -0,0 +1,28 @@
+package com.soukconect.bpm.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Human-step timeouts of OrderWorkflow (how long to wait for signals).
+ * Loaded from application.yml under workflow.timeouts.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "workflow.timeouts")
+@Data
+public class WorkflowTimeoutConfig {
+
+    private int vendorConfirmationMinutes = 15;
+    private int deliveryCompletionHours = 4;
+
+    public Duration getVendorConfirmationTimeout() {
+        return Duration.ofMinutes(vendorConfirmationMinutes);
+    }
+
+    public Duration getDeliveryCompletionTimeout() {
+        return Duration.ofHours(deliveryCompletionHours);
+    }
+}
@@ -0,0 +1,302 @@
+package com.soukconect.bpm.order.readmodel;
+
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.dto.TimelineEvent;
+import com.soukconect.bpm.common.dto.TimelineEventType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes order progress to Server-Sent Events subscribers.
+ *
+ * Idle subscribers hold no thread: an {@link SseEmitter} is an async request plus a small
+ * buffer. Each subscriber buffers at most buffer-size events, drained by a shared pool; a
+ * subscriber whose buffer overflows loses its queued events and gets one "resync" event
+ * (current status) telling it to re-read the timeline. Streams end when the order is final.
+ *
+ * A send to a client that stopped reading blocks its sender until the container's write
+ * timeout. A send taking longer than send-timeout-ms drops that subscriber, and the pool
+ * gets one extra thread while the send stays blocked, so stalled clients never hold the
+ * senders the other streams need.
+ */
+@Component
+public class OrderEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventBroadcaster.class);
+
+    // The workflow closes its timeline with WORKFLOW_<final status>
+    private static final Map<OrderWorkflowStatus, String> FINAL_EVENTS = new EnumMap<>(Map.of(
+            OrderWorkflowStatus.COMPLETED, TimelineEventType.WORKFLOW_COMPLETED.name(),
+            OrderWorkflowStatus.FAILED, TimelineEventType.WORKFLOW_FAILED.name(),
+            OrderWorkflowStatus.CANCELLED, TimelineEventType.WORKFLOW_CANCELLED.name()));
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int bufferSize;
+    private final Duration streamTimeout;
+    private final Duration sendTimeout;
+    private final int senderThreads;
+    private final ThreadPoolExecutor senders;
+    private int stalledSends;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderEventBroadcaster(
+            @Value("${sse.buffer-size:32}") int bufferSize,
+            @Value("${sse.sender-threads:4}") int senderThreads,
+            @Value("${sse.timeout-minutes:30}") int timeoutMinutes,
+            @Value("${sse.heartbeat-seconds:30}") int heartbeatSeconds,
+            @Value("${sse.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.bufferSize = bufferSize;
+        this.streamTimeout = Duration.ofMinutes(timeoutMinutes);
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMs);
+        this.senderThreads = senderThreads;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "sse-sender-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        long checkMillis = Math.max(100, sendTimeoutMs / 2);
+        heartbeats.scheduleAtFixedRate(this::dropStalledSubscribers, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a stream for the workflow, starting with a snapshot when its view is known.
+     * The subscriber is registered before the snapshot is read, so no transition published
+     * in between is missed; events are held back until the snapshot leads the stream.
+     */
+    public SseEmitter subscribe(String workflowId, Supplier<OrderView> snapshot) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(workflowId, emitter);
+        subscribers.computeIfAbsent(workflowId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        OrderView current = snapshot.get();
+        subscriber.open(current != null ? SseEmitter.event().name("snapshot").data(current) : null,
+                current != null ? current.status() : null, current != null && current.isFinal());
+        return emitter;
+    }
+
+    /**
+     * Fan a published transition out to the workflow's subscribers.
+     */
+    public void publish(OrderView view, OrderWorkflowStatus status, TimelineEvent event) {
+        Set<Subscriber> targets = subscribers.get(view.workflowId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        boolean last = view.isFinal() && event != null && event.event().equals(FINAL_EVENTS.get(view.status()));
+        for (Subscriber subscriber : targets) {
+            if (status != null) {
+                subscriber.offer(SseEmitter.event().name("status").data(Map.of("status", status)), status, false);
+            }
+            if (event != null) {
+                subscriber.offer(SseEmitter.event().name("timeline").data(event), null, last);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> set = subscribers.get(subscriber.workflowId);
+        if (set != null && set.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.workflowId, (id, s) -> s.isEmpty() ? null : s);
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(
+                subscriber -> subscriber.offer(SseEmitter.event().comment("keep-alive"), null, false)));
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            if (subscriber.markStalled(now)) {
+                log.debug("SSE subscriber of {} stopped reading, dropping it", subscriber.workflowId);
+                remove(subscriber);
+                resizeSenders(1);
+                subscriber.emitter.completeWithError(new TimeoutException("SSE send timed out"));
+            }
+        }));
+    }
+
+    /**
+     * Keeps senderThreads threads free for live streams while stalled sends block.
+     */
+    private synchronized void resizeSenders(int stalledDelta) {
+        stalledSends += stalledDelta;
+        int size = senderThreads + stalledSends;
+        if (stalledDelta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * One stream: a bounded buffer drained by at most one sender task at a time, once the
+     * stream is open.
+     */
+    private final class Subscriber {
+
+        private final String workflowId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean open;
+        private boolean draining;
+        private boolean completeAfterDrain;
+        private OrderWorkflowStatus lastStatus;
+        private long sendStartedNanos;
+        private boolean stalled;
+
+        Subscriber(String workflowId, SseEmitter emitter) {
+            this.workflowId = workflowId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event, OrderWorkflowStatus status, boolean last) {
+            synchronized (this) {
+                if (status != null) {
+                    lastStatus = status;
+                }
+                if (buffer.size() >= bufferSize) {
+                    // Slow consumer: drop what it has not read and ask it to resync
+                    buffer.clear();
+                    buffer.add(SseEmitter.event().name("resync").data(Map.of("status", String.valueOf(lastStatus))));
+                    log.debug("SSE subscriber of {} lagging, dropped {} events", workflowId, bufferSize);
+                }
+                buffer.add(event);
+                completeAfterDrain |= last;
+                if (!open || draining || stalled) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Put the snapshot (if any) ahead of the events buffered so far and start sending.
+         */
+        void open(SseEmitter.SseEventBuilder snapshot, OrderWorkflowStatus status, boolean last) {
+            synchronized (this) {
+                if (snapshot != null) {
+                    if (lastStatus == null) {
+                        lastStatus = status;
+                    }
+                    buffer.addFirst(snapshot);
+                    completeAfterDrain |= last;
+                }
+                open = true;
+                if (buffer.isEmpty() || draining || stalled) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Flags a send running for longer than the send timeout; true the first time.
+         */
+        synchronized boolean markStalled(long nowNanos) {
+            if (stalled || sendStartedNanos == 0 || nowNanos - sendStartedNanos < sendTimeout.toNanos()) {
+                return false;
+            }
+            stalled = true;
+            buffer.clear();
+            return true;
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                boolean complete;
+                synchronized (this) {
+                    next = buffer.poll();
+                    complete = next == null && completeAfterDrain;
+                    if (next == null) {
+                        draining = false;
+                    } else {
+                        sendStartedNanos = System.nanoTime();
+                    }
+                }
+                if (next == null) {
+                    if (complete) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                boolean failed = false;
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the emitter callbacks remove the subscriber
+                    failed = true;
+                }
+                boolean wasStalled;
+                synchronized (this) {
+                    sendStartedNanos = 0;
+                    wasStalled = stalled;
+                    if (failed || stalled) {
+                        buffer.clear();
+                        draining = false;
+                    }
+                }
+                if (wasStalled) {
+                    // Dropped while this send blocked; give the extra thread back
+                    resizeSenders(-1);
+                    return;
+                }
+                if (failed) {
+                    remove(this);
+                    return;
+                }
+            }
+        }
+    }
+}
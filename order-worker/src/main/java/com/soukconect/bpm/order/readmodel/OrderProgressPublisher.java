@@ -0,0 +1,29 @@
+package com.soukconect.bpm.order.readmodel;
+
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.dto.TimelineEvent;
+import com.soukconect.bpm.common.workflow.OrderProgressListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes workflow progress into the {@link OrderReadModel} and pushes it to the order's
+ * event stream subscribers.
+ */
+@Component
+public class OrderProgressPublisher implements OrderProgressListener {
+
+    private final OrderReadModel readModel;
+    private final OrderEventBroadcaster broadcaster;
+
+    public OrderProgressPublisher(OrderReadModel readModel, OrderEventBroadcaster broadcaster) {
+        this.readModel = readModel;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public void publishProgress(String workflowId, Long orderId, OrderWorkflowStatus status, TimelineEvent event,
+                                int timelineSize) {
+        OrderView view = readModel.apply(workflowId, orderId, status, event, timelineSize);
+        broadcaster.publish(view, status, event);
+    }
+}
@@ -0,0 +1,147 @@
+package com.soukconect.bpm.order.readmodel;
+
+import com.soukconect.bpm.common.dto.OrderTimeline;
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.dto.TimelineEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-process, bounded store of {@link OrderView}s keyed by workflowId, fed by
+ * OrderWorkflow through {@link OrderProgressPublisher}. The API serves status and
+ * timeline reads from here and only queries the workflow on a miss.
+ *
+ * Only workflows whose tasks ran on this worker are present, so views of running orders
+ * that have not changed for refresh-after-seconds are treated as misses (another worker may
+ * have moved them on). Views of finished orders never go stale.
+ *
+ * Callers can also wait for the order id of a workflow ({@link #orderId(String)}); the wait is
+ * completed by the workflow's own progress, without polling.
+ *
+ * Views are also counted by status (gauge readmodel.orders, tag status), kept up to date on
+ * every change, so dashboards can aggregate by state without scanning.
+ */
+@Component
+public class OrderReadModel {
+
+    private final Duration refreshAfter;
+    private final int maxTimelineEntries;
+    private final LinkedHashMap<String, OrderView> views;
+    private final Map<String, CompletableFuture<Long>> orderIdWaiters = new HashMap<>();
+    // Views per status ordinal; written under the store lock, read by gauges
+    private final AtomicIntegerArray statusCounts = new AtomicIntegerArray(OrderWorkflowStatus.values().length);
+
+    public OrderReadModel(
+            @Value("${readmodel.max-orders:50000}") int maxOrders,
+            @Value("${readmodel.refresh-after-seconds:30}") int refreshAfterSeconds,
+            @Value("${workflow.history.max-timeline-entries:50}") int maxTimelineEntries,
+            MeterRegistry registry) {
+        this.refreshAfter = Duration.ofSeconds(refreshAfterSeconds);
+        this.maxTimelineEntries = maxTimelineEntries;
+        this.views = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OrderView> eldest) {
+                if (size() <= maxOrders) {
+                    return false;
+                }
+                count(eldest.getValue().status(), -1);
+                return true;
+            }
+        };
+        for (OrderWorkflowStatus status : OrderWorkflowStatus.values()) {
+            Gauge.builder("readmodel.orders", statusCounts, counts -> counts.get(status.ordinal()))
+                    .tag("status", status.name()).register(registry);
+        }
+    }
+
+    /**
+     * Fresh view of the workflow, or null when it must be queried.
+     */
+    public synchronized OrderView get(String workflowId) {
+        OrderView view = views.get(workflowId);
+        if (view == null || view.isFinal() || System.nanoTime() - view.refreshedAtNanos() < refreshAfter.toNanos()) {
+            return view;
+        }
+        return null;
+    }
+
+    /**
+     * Apply a transition published by the workflow.
+     */
+    public synchronized OrderView apply(String workflowId, Long orderId, OrderWorkflowStatus status, TimelineEvent event,
+                                        int timelineSize) {
+        OrderView current = views.get(workflowId);
+        if (current == null) {
+            current = new OrderView(workflowId, null, null, OrderTimeline.empty(maxTimelineEntries), 0);
+        }
+        OrderView updated = current.apply(orderId, status, event, timelineSize, System.nanoTime());
+        put(updated);
+        if (updated.orderId() != null || updated.isFinal()) {
+            CompletableFuture<Long> waiter = orderIdWaiters.remove(workflowId);
+            if (waiter != null) {
+                waiter.complete(updated.orderId());
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Completes with the workflow's order id once it is published, or with null when the
+     * workflow finished without creating one. Callers that stop waiting must call
+     * {@link #stopWaiting(String)}.
+     */
+    public synchronized CompletableFuture<Long> orderId(String workflowId) {
+        OrderView view = views.get(workflowId);
+        if (view != null && (view.orderId() != null || view.isFinal())) {
+            return CompletableFuture.completedFuture(view.orderId());
+        }
+        return orderIdWaiters.computeIfAbsent(workflowId, id -> new CompletableFuture<>());
+    }
+
+    public synchronized void stopWaiting(String workflowId) {
+        orderIdWaiters.remove(workflowId);
+    }
+
+    /**
+     * Remember what a query returned; null fields keep the known values.
+     */
+    public synchronized void refresh(String workflowId, OrderWorkflowStatus status, OrderTimeline timeline) {
+        OrderView current = views.get(workflowId);
+        put(new OrderView(workflowId,
+                current != null ? current.orderId() : null,
+                status != null ? status : current != null ? current.status() : null,
+                timeline != null ? timeline : current != null ? current.timeline() : null,
+                System.nanoTime()));
+    }
+
+    public synchronized int size() {
+        return views.size();
+    }
+
+    public int count(OrderWorkflowStatus status) {
+        return statusCounts.get(status.ordinal());
+    }
+
+    private void put(OrderView view) {
+        OrderView previous = views.put(view.workflowId(), view);
+        if (previous != null) {
+            count(previous.status(), -1);
+        }
+        count(view.status(), 1);
+    }
+
+    private void count(OrderWorkflowStatus status, int delta) {
+        if (status != null) {
+            statusCounts.addAndGet(status.ordinal(), delta);
+        }
+    }
+}
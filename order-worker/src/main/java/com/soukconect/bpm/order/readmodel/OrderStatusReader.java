@@ -0,0 +1,115 @@
+package com.soukconect.bpm.order.readmodel;
+
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resolves the status of many order workflows at once: from the {@link OrderReadModel}
+ * where known, else by querying with bounded parallelism and a per-workflow timeout.
+ * Slow or unknown workflows are reported separately instead of failing the batch.
+ */
+@Component
+public class OrderStatusReader {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusReader.class);
+
+    private final WorkflowClient workflowClient;
+    private final OrderReadModel readModel;
+    private final int queryParallelism;
+    private final Duration queryTimeout;
+
+    // Queries are blocking gRPC calls; shared and capped across concurrent batches
+    private final Scheduler queryScheduler;
+
+    public OrderStatusReader(
+            WorkflowClient workflowClient,
+            OrderReadModel readModel,
+            @Value("${api.status-batch.query-parallelism:16}") int queryParallelism,
+            @Value("${api.status-batch.query-timeout-ms:2000}") long queryTimeoutMs,
+            @Value("${api.status-batch.query-threads:64}") int queryThreads) {
+        this.workflowClient = workflowClient;
+        this.readModel = readModel;
+        this.queryParallelism = queryParallelism;
+        this.queryTimeout = Duration.ofMillis(queryTimeoutMs);
+        this.queryScheduler = Schedulers.newBoundedElastic(queryThreads, Integer.MAX_VALUE, "status-query");
+    }
+
+    public record StatusBatch(
+            Map<String, OrderWorkflowStatus> statuses,
+            List<String> missing,
+            List<String> timedOut,
+            Map<String, String> failed) {
+    }
+
+    private record Outcome(String workflowId, OrderWorkflowStatus status, Throwable error) {
+    }
+
+    public StatusBatch readStatuses(List<String> workflowIds) {
+        Map<String, OrderWorkflowStatus> statuses = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String workflowId : new LinkedHashSet<>(workflowIds)) {
+            OrderView view = readModel.get(workflowId);
+            if (view != null && view.status() != null) {
+                statuses.put(workflowId, view.status());
+            } else {
+                misses.add(workflowId);
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        List<String> timedOut = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        if (!misses.isEmpty()) {
+            log.debug("Status batch: {} from read model, {} to query", statuses.size(), misses.size());
+            List<Outcome> outcomes = Flux.fromIterable(misses)
+                    .flatMap(this::query, queryParallelism)
+                    .collectList()
+                    .block();
+            for (Outcome outcome : outcomes) {
+                if (outcome.error() == null) {
+                    statuses.put(outcome.workflowId(), outcome.status());
+                    readModel.refresh(outcome.workflowId(), outcome.status(), null);
+                } else if (outcome.error() instanceof WorkflowNotFoundException) {
+                    missing.add(outcome.workflowId());
+                } else if (outcome.error() instanceof TimeoutException) {
+                    timedOut.add(outcome.workflowId());
+                } else {
+                    failed.put(outcome.workflowId(), String.valueOf(outcome.error().getMessage()));
+                }
+            }
+        }
+        return new StatusBatch(statuses, missing, timedOut, failed);
+    }
+
+    private Mono<Outcome> query(String workflowId) {
+        return Mono.fromCallable(() -> workflowClient.newWorkflowStub(OrderWorkflow.class, workflowId).getStatus())
+                .subscribeOn(queryScheduler)
+                .timeout(queryTimeout)
+                .map(status -> new Outcome(workflowId, status, null))
+                .onErrorResume(e -> Mono.just(new Outcome(workflowId, null, e)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        queryScheduler.dispose();
+    }
+}
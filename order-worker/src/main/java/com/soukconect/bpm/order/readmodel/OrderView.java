@@ -0,0 +1,51 @@
+package com.soukconect.bpm.order.readmodel;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.soukconect.bpm.common.dto.OrderTimeline;
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.dto.TimelineEvent;
+
+import java.util.List;
+
+/**
+ * Last known status and timeline of an order workflow. Immutable; the store replaces
+ * the view on every change. Fields filled from a query fallback may be null.
+ */
+public record OrderView(
+        String workflowId,
+        Long orderId,
+        OrderWorkflowStatus status,
+        @JsonIgnore OrderTimeline timeline,
+        long refreshedAtNanos) {
+
+    public boolean isFinal() {
+        return status != null && status.isFinal();
+    }
+
+    /**
+     * The timeline as events (snapshots and API responses); null when unknown.
+     */
+    @JsonProperty("timeline")
+    public List<TimelineEvent> events() {
+        return timeline != null ? timeline.toEvents() : null;
+    }
+
+    /**
+     * The timeline becomes unknown (null) when events were missed, e.g. when the workflow
+     * was replayed on this worker after a restart; the next query fills it in again.
+     */
+    OrderView apply(Long orderId, OrderWorkflowStatus status, TimelineEvent event, int timelineSize, long nowNanos) {
+        OrderTimeline events = timeline;
+        if (event != null) {
+            events = timeline == null || timeline.totalCount() != timelineSize - 1
+                    ? null
+                    : timeline.append(event);
+        }
+        return new OrderView(workflowId,
+                orderId != null ? orderId : this.orderId,
+                status != null ? status : this.status,
+                events,
+                nowNanos);
+    }
+}
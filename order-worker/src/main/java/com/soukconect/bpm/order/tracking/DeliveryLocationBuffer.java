@@ -0,0 +1,293 @@
+package com.soukconect.bpm.order.tracking;
+
+import com.soukconect.bpm.order.readmodel.OrderReadModel;
+import com.soukconect.bpm.order.readmodel.OrderView;
+import io.temporal.api.enums.v1.WorkflowExecutionStatus;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowExecutionDescription;
+import io.temporal.client.WorkflowNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory buffer of live delivery locations, per order workflow.
+ *
+ * Every ping is kept (latest plus a short trail) and served to trackers from here. Only
+ * meaningful changes reach the workflow as a deliveryUpdate signal, carrying the latest position:
+ * <ul>
+ *   <li>a status change, right away;</li>
+ *   <li>an ETA moved by at least eta-change-minutes, at most once per min-signal-interval;</li>
+ *   <li>otherwise the position, once per position-refresh interval (0 disables).</li>
+ * </ul>
+ * Changes held back by the interval are coalesced and sent by a periodic flush. At most one
+ * signal per order is in flight; what changes meanwhile is sent once it completes, so the
+ * workflow receives an order's updates in ingestion order. A signal that fails is not counted
+ * as forwarded; the flush retries the latest position.
+ *
+ * Pings are only buffered for running order workflows: the first ping of an order is checked
+ * against the read model, or the workflow is described, and a track is dropped once its
+ * workflow has closed.
+ */
+@Component
+public class DeliveryLocationBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryLocationBuffer.class);
+
+    private final WorkflowClient workflowClient;
+    private final OrderReadModel readModel;
+    private final int trailSize;
+    private final Duration etaChange;
+    private final Duration minSignalInterval;
+    private final Duration positionRefresh;
+    private final Duration idleExpiry;
+    private final LinkedHashMap<String, Track> tracks;
+
+    // Signals are blocking gRPC calls; ingestion never waits for them
+    private final ExecutorService signalSender = Executors.newFixedThreadPool(4, daemon("location-signal"));
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(daemon("location-flush"));
+
+    public DeliveryLocationBuffer(
+            WorkflowClient workflowClient,
+            OrderReadModel readModel,
+            @Value("${tracking.location.max-orders:50000}") int maxOrders,
+            @Value("${tracking.location.trail-size:20}") int trailSize,
+            @Value("${tracking.location.eta-change-minutes:2}") int etaChangeMinutes,
+            @Value("${tracking.location.min-signal-interval-seconds:30}") int minSignalIntervalSeconds,
+            @Value("${tracking.location.position-refresh-seconds:300}") int positionRefreshSeconds,
+            @Value("${tracking.location.idle-minutes:60}") int idleMinutes) {
+        this.workflowClient = workflowClient;
+        this.readModel = readModel;
+        this.trailSize = trailSize;
+        this.etaChange = Duration.ofMinutes(etaChangeMinutes);
+        this.minSignalInterval = Duration.ofSeconds(minSignalIntervalSeconds);
+        this.positionRefresh = Duration.ofSeconds(positionRefreshSeconds);
+        this.idleExpiry = Duration.ofMinutes(idleMinutes);
+        this.tracks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Track> eldest) {
+                return size() > maxOrders;
+            }
+        };
+        flusher.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Latest ping and recent trail (oldest first) of an order.
+     */
+    public record Snapshot(LocationPing latest, List<LocationPing> trail, LocationPing lastForwarded) {
+    }
+
+    /**
+     * @return false, and nothing is buffered, when there is no running order workflow with that id
+     */
+    public boolean ingest(String workflowId, LocationPing ping) {
+        Track track;
+        synchronized (tracks) {
+            track = tracks.get(workflowId);
+        }
+        if (track == null) {
+            if (!isRunningOrder(workflowId)) {
+                return false;
+            }
+            synchronized (tracks) {
+                track = tracks.computeIfAbsent(workflowId, id -> new Track());
+            }
+        }
+        LocationPing toSend = track.add(ping);
+        if (toSend != null) {
+            send(workflowId, track, toSend);
+        }
+        return true;
+    }
+
+    /**
+     * Null when the order has no (recent) pings.
+     */
+    public Snapshot snapshot(String workflowId) {
+        Track track;
+        synchronized (tracks) {
+            track = tracks.get(workflowId);
+        }
+        return track != null ? track.snapshot() : null;
+    }
+
+    private void flush() {
+        List<Map.Entry<String, Track>> entries;
+        synchronized (tracks) {
+            entries = new ArrayList<>(tracks.entrySet());
+        }
+        Instant now = Instant.now();
+        for (Map.Entry<String, Track> entry : entries) {
+            Track track = entry.getValue();
+            OrderView view = readModel.get(entry.getKey());
+            if (track.idleSince(now, idleExpiry) || view != null && view.isFinal()) {
+                synchronized (tracks) {
+                    tracks.remove(entry.getKey(), track);
+                }
+                continue;
+            }
+            LocationPing toSend = track.due(now);
+            if (toSend != null) {
+                send(entry.getKey(), track, toSend);
+            }
+        }
+    }
+
+    private boolean isRunningOrder(String workflowId) {
+        OrderView view = readModel.get(workflowId);
+        if (view != null) {
+            return !view.isFinal();
+        }
+        try {
+            WorkflowExecutionDescription description = workflowClient.newUntypedWorkflowStub(workflowId).describe();
+            return "OrderWorkflow".equals(description.getWorkflowType())
+                    && description.getStatus() == WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_RUNNING;
+        } catch (WorkflowNotFoundException e) {
+            return false;
+        }
+    }
+
+    // The track's only signal in flight; the next due change goes out when it completes
+    private void send(String workflowId, Track track, LocationPing ping) {
+        signalSender.execute(() -> {
+            try {
+                workflowClient.newUntypedWorkflowStub(workflowId)
+                        .signal("deliveryUpdate", ping.status(), ping.lat(), ping.lng(), ping.eta());
+            } catch (WorkflowNotFoundException e) {
+                // Closed: later pings are checked again and rejected
+                synchronized (tracks) {
+                    tracks.remove(workflowId, track);
+                }
+                return;
+            } catch (Exception e) {
+                // Left to the next flush, rather than retried right away against a failing server
+                log.warn("Failed to forward location of {}: {}", workflowId, e.getMessage());
+                track.failed();
+                return;
+            }
+            LocationPing next = track.sent(Instant.now());
+            if (next != null) {
+                send(workflowId, track, next);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        signalSender.shutdown();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Pings of one order and what was last forwarded.
+     */
+    private final class Track {
+
+        private final ArrayDeque<LocationPing> trail = new ArrayDeque<>();
+        private LocationPing latest;
+        private LocationPing lastForwarded;
+        private Instant lastForwardedAt = Instant.EPOCH;
+        private boolean significantPending;
+        private boolean sending;
+
+        // What the signal in flight replaced, restored when it fails
+        private LocationPing previousForwarded;
+        private Instant previousForwardedAt;
+        private boolean previousSignificantPending;
+
+        // Returns the ping to forward now, if any
+        synchronized LocationPing add(LocationPing ping) {
+            latest = ping;
+            trail.addLast(ping);
+            if (trail.size() > trailSize) {
+                trail.removeFirst();
+            }
+
+            if (lastForwarded != null && etaMoved(ping)) {
+                significantPending = true;
+            }
+            return due(ping.receivedAt());
+        }
+
+        // Null while a signal is in flight; the sender asks again when it completes
+        synchronized LocationPing due(Instant now) {
+            if (sending || latest == null || latest == lastForwarded) {
+                return null;
+            }
+            if (lastForwarded == null || !Objects.equals(latest.status(), lastForwarded.status())) {
+                return forward(now);
+            }
+            Duration sinceForward = Duration.between(lastForwardedAt, now);
+            if (significantPending && sinceForward.compareTo(minSignalInterval) >= 0) {
+                return forward(now);
+            }
+            if (!positionRefresh.isZero() && sinceForward.compareTo(positionRefresh) >= 0) {
+                return forward(now);
+            }
+            return null;
+        }
+
+        synchronized LocationPing sent(Instant now) {
+            sending = false;
+            return due(now);
+        }
+
+        synchronized void failed() {
+            sending = false;
+            lastForwarded = previousForwarded;
+            lastForwardedAt = previousForwardedAt;
+            significantPending |= previousSignificantPending;
+        }
+
+        synchronized boolean idleSince(Instant now, Duration expiry) {
+            return latest != null && Duration.between(latest.receivedAt(), now).compareTo(expiry) > 0;
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(latest, List.copyOf(trail), lastForwarded);
+        }
+
+        private boolean etaMoved(LocationPing ping) {
+            if (ping.eta() == null || lastForwarded.eta() == null) {
+                return ping.eta() != lastForwarded.eta();
+            }
+            return Duration.between(lastForwarded.eta(), ping.eta()).abs().compareTo(etaChange) >= 0;
+        }
+
+        private LocationPing forward(Instant now) {
+            previousForwarded = lastForwarded;
+            previousForwardedAt = lastForwardedAt;
+            previousSignificantPending = significantPending;
+            lastForwarded = latest;
+            lastForwardedAt = now;
+            significantPending = false;
+            sending = true;
+            return latest;
+        }
+    }
+}
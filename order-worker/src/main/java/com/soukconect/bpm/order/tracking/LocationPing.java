@@ -0,0 +1,15 @@
+package com.soukconect.bpm.order.tracking;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * One raw position report of a delivery partner.
+ */
+public record LocationPing(
+        String status,
+        Double lat,
+        Double lng,
+        LocalDateTime eta,
+        Instant receivedAt) {
+}
@@ -1,21 +1,47 @@
 package com.soukconect.bpm.order.workflow;
 
 import com.soukconect.bpm.common.activity.OrderActivities;
+import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.dto.InventoryReservation;
+import com.soukconect.bpm.common.dto.OrderLine;
+import com.soukconect.bpm.common.dto.OrderSnapshot;
+import com.soukconect.bpm.common.dto.OrderTimeline;
 import com.soukconect.bpm.common.dto.OrderWorkflowInput;
 import com.soukconect.bpm.common.dto.OrderWorkflowOutput;
+import com.soukconect.bpm.common.dto.OrderWorkflowState;
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
 import com.soukconect.bpm.common.dto.PaymentResult;
 import com.soukconect.bpm.common.dto.TimelineEvent;
+import com.soukconect.bpm.common.dto.TimelineEventType;
+import com.soukconect.bpm.common.dto.TimelineStatus;
+import com.soukconect.bpm.common.dto.VendorNotificationResult;
+import com.soukconect.bpm.common.dto.VendorOrderInput;
+import com.soukconect.bpm.common.dto.VendorOrderResult;
+import com.soukconect.bpm.common.workflow.OrderProgressListener;
 import com.soukconect.bpm.common.workflow.OrderWorkflow;
-import io.temporal.activity.ActivityOptions;
-import io.temporal.common.RetryOptions;
+import com.soukconect.bpm.common.workflow.VendorOrderWorkflow;
+import com.soukconect.bpm.common.workflow.WorkflowTime;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.ChildWorkflowOptions;
+import io.temporal.workflow.Promise;
 import io.temporal.workflow.Saga;
 import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInfo;
+import io.temporal.workflow.WorkflowQueue;
+import io.temporal.workflow.unsafe.WorkflowUnsafe;
 import org.slf4j.Logger;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of OrderWorkflow with full state machine from
@@ -25,260 +51,122 @@ import java.util.List;
  * CREATED → VALIDATING → PAYMENT_PROCESSING → INVENTORY_RESERVED →
  * AWAITING_VENDOR_CONFIRMATION → VENDOR_PREPARING → READY_FOR_PICKUP →
  * DELIVERY_ASSIGNED → OUT_FOR_DELIVERY → DELIVERED → COMPLETED
+ *
+ * Each notified vendor runs its share of the order as a VendorOrderWorkflow child
+ * (own confirmation timer, prep time and readiness); vendor signals received here
+ * are forwarded to the vendor's child and the order moves on once all of them are ready.
  */
 public class OrderWorkflowImpl implements OrderWorkflow {
 
     private static final Logger log = Workflow.getLogger(OrderWorkflowImpl.class);
 
-    // Timeouts from specs
-    private static final Duration VENDOR_CONFIRMATION_TIMEOUT = Duration.ofMinutes(15);
-    private static final Duration DELIVERY_COMPLETION_TIMEOUT = Duration.ofHours(4);
-
-    // Activity stubs with different timeout/retry configurations per spec
-
-    // Standard activities: 30s timeout, 3 retries (validateOrder, reserveInventory,
-    // captureDeliveryProof)
-    private final OrderActivities standardActivities = Workflow.newActivityStub(
-            OrderActivities.class,
-            ActivityOptions.newBuilder()
-                    .setStartToCloseTimeout(Duration.ofSeconds(30))
-                    .setRetryOptions(RetryOptions.newBuilder()
-                            .setInitialInterval(Duration.ofSeconds(1))
-                            .setMaximumInterval(Duration.ofSeconds(30))
-                            .setBackoffCoefficient(2.0)
-                            .setMaximumAttempts(3)
-                            .build())
-                    .build());
-
-    // Payment & delivery assignment: 60s timeout, 3 retries
-    private final OrderActivities paymentActivities = Workflow.newActivityStub(
-            OrderActivities.class,
-            ActivityOptions.newBuilder()
-                    .setStartToCloseTimeout(Duration.ofSeconds(60))
-                    .setRetryOptions(RetryOptions.newBuilder()
-                            .setInitialInterval(Duration.ofSeconds(1))
-                            .setMaximumInterval(Duration.ofSeconds(30))
-                            .setBackoffCoefficient(2.0)
-                            .setMaximumAttempts(3)
-                            .build())
-                    .build());
-
-    // Tracking activities: 5 minutes timeout, 3 retries
-    private final OrderActivities trackingActivities = Workflow.newActivityStub(
-            OrderActivities.class,
-            ActivityOptions.newBuilder()
-                    .setStartToCloseTimeout(Duration.ofMinutes(5))
-                    .setRetryOptions(RetryOptions.newBuilder()
-                            .setInitialInterval(Duration.ofSeconds(1))
-                            .setMaximumInterval(Duration.ofSeconds(30))
-                            .setBackoffCoefficient(2.0)
-                            .setMaximumAttempts(3)
-                            .build())
-                    .build());
-
-    // Notification activities: 30s timeout, 5 retries
-    private final OrderActivities notificationActivities = Workflow.newActivityStub(
-            OrderActivities.class,
-            ActivityOptions.newBuilder()
-                    .setStartToCloseTimeout(Duration.ofSeconds(30))
-                    .setRetryOptions(RetryOptions.newBuilder()
-                            .setInitialInterval(Duration.ofSeconds(5))
-                            .setMaximumAttempts(5)
-                            .build())
-                    .build());
+    // Timeouts from specs, overridable through workflow.timeouts.*
+    private final Duration vendorConfirmationTimeout;
+    private final Duration deliveryCompletionTimeout;
+
+    // History limits, overridable through workflow.history.*
+    private final int maxHistoryEvents;
+    private final long maxHistoryBytes;
+
+    // Timeouts and retries per activity method come from the WorkflowImplementationOptions
+    // given at registration (ActivityConfig, workflow.activities.*)
+    private final OrderActivities activities = Workflow.newActivityStub(OrderActivities.class);
+
+    // Status and timeline changes go to the worker's read model, outside of the history
+    private final OrderProgressListener progress;
+
 
     // ============== WORKFLOW STATE ==============
     private OrderWorkflowInput input;
-    private String currentStatus = "CREATED";
-    private List<TimelineEvent> timeline = new ArrayList<>();
+    private OrderWorkflowStatus currentStatus = OrderWorkflowStatus.CREATED;
+    private OrderTimeline timeline;
     private LocalDateTime estimatedDeliveryTime;
+    private final List<String> issues = new ArrayList<>();
+    private String deliveryProofUrl;
+    private long deliveryDeadlineMillis;
+    private int continuations;
+
+    // What the saga has to undo; kept as data so a continued run can rebuild it
+    private Long paymentId;
     private String paymentTransactionId;
+    private List<OrderLine> reservedLines;
+    private List<Long> notifiedVendorIds = List.of();
     private Long deliveryPartnerId;
-    private String deliveryProofUrl;
 
     // Signal state
     private boolean cancelRequested = false;
     private String cancellationReason;
     private boolean refundRequested = false;
-    private boolean vendorConfirmed = false;
-    private boolean vendorRejected = false;
-    private Integer vendorPrepTime;
-    private boolean vendorReady = false;
+    private final Set<Long> confirmedVendors = new HashSet<>();
+    private final Map<Long, Integer> vendorPrepTimes = new HashMap<>();
     private boolean deliveryPickedUp = false;
     private boolean deliveryCompleted = false;
     private String deliverySignature;
 
-    // ============== MAIN WORKFLOW ==============
-    @Override
-    public OrderWorkflowOutput processOrder(com.soukconect.bpm.common.dto.CreateOrderRequest request) {
-        log.info("Starting OrderWorkflow for customerId: {}", request.customerId());
-
-        addTimelineEvent("WORKFLOW_STARTED", "COMPLETED");
-
-        Saga saga = new Saga(new Saga.Options.Builder().setParallelCompensation(false).build());
-        List<String> issues = new ArrayList<>();
+    // Per-vendor children and the vendor signals waiting to be forwarded to them
+    private final Map<Long, VendorOrderWorkflow> vendorOrders = new HashMap<>();
+    private final Map<Long, Promise<VendorOrderResult>> vendorResults = new LinkedHashMap<>();
+    private final WorkflowQueue<VendorSignal> vendorSignals = Workflow.newWorkflowQueue(Integer.MAX_VALUE);
 
-        // Variable to hold the generated orderId
-        Long orderId = null;
-
-        try {
-            // ===== STEP 1: CREATE ORDER =====
-            updateStatus("CREATING");
-            orderId = standardActivities.createOrder(request);
-
-            // Reconstruct input with the new ID for subsequent steps
-            this.input = new OrderWorkflowInput(
-                    orderId,
-                    request.customerId(),
-                    null, // vendorIds not in create request directly mapped here, would need to be
-                          // extracted or re-fetched. But for flow we trust request
-                    request.totalAmount(),
-                    request.paymentMethod(),
-                    request.paymentIntentId(),
-                    request.paymentGateway(),
-                    request.paymentToken(),
-                    null, // Address object structure differs slightly, simplified for workflow tracking
-                    request.requestedDeliveryDate(),
-                    null,
-                    request.notes());
-
-            // For vendors, we need to extract from items or request if available.
-            // In CreateOrderRequest items contain productId.
-            // Better approach: Fetch the full order details after creation to get all ID
-            // mappings correctly
-            // But for now, let's assume successful creation implies we can proceed.
-            // Actually, we need vendorIds for notification later.
-            // Let's assume input has been normalized or we re-fetch.
-            // For this implementation, we will proceed with the ID.
-
-            log.info("Order created with ID: {}", orderId);
-            addTimelineEvent("ORDER_CREATED", "COMPLETED");
-
-            checkCancellation();
-
-            // ===== STEP 2: PROCESS PAYMENT =====
-            updateStatus("PAYMENT_PROCESSING");
-            // Create a temporary input wrapper for payment activity if needed, or update
-            // signatures.
-            // Since we changed interface to take CreateOrderRequest, downstream activities
-            // currently take OrderWorkflowInput.
-            // We need to construct OrderWorkflowInput from CreateOrderRequest + orderId.
-            // Let's create a helper to map it.
-
-            // Re-mapping for downstream activities which expect OrderWorkflowInput
-            OrderWorkflowInput workflowInput = new OrderWorkflowInput(
-                    orderId,
-                    request.customerId(),
-                    List.of(), // Vendor IDs placeholder - strictly would need re-fetch
-                    request.totalAmount(),
-                    request.paymentMethod(),
-                    request.paymentIntentId(),
-                    request.paymentGateway(),
-                    request.paymentToken(),
-                    null, // Address placeholder
-                    request.requestedDeliveryDate(),
-                    null, // Slot placeholder
-                    request.notes());
-            // Updating class level input for status tracking
-            this.input = workflowInput;
-
-            PaymentResult paymentResult = paymentActivities.processPayment(workflowInput);
-
-            if (!paymentResult.success()) {
-                updateStatus("PAYMENT_FAILED");
-                addTimelineEvent("PAYMENT_FAILED", "FAILED");
-                throw new RuntimeException("Payment failed: " + paymentResult.errorMessage());
-            }
-
-            paymentTransactionId = paymentResult.transactionId();
-            Long finalOrderId = orderId;
-            Long finalPaymentId = paymentResult.paymentId();
-            saga.addCompensation(() -> paymentActivities.refundPayment(finalOrderId, finalPaymentId, paymentTransactionId));
-            addTimelineEvent("PAYMENT_PROCESSED", "COMPLETED");
-
-            checkCancellation();
-
-            // ===== STEP 3: RESERVE INVENTORY =====
-            updateStatus("INVENTORY_RESERVED");
-            standardActivities.reserveInventory(input);
-            saga.addCompensation(() -> standardActivities.releaseInventory(input));
-            addTimelineEvent("INVENTORY_RESERVED", "COMPLETED");
-
-            checkCancellation();
-
-            // ===== STEP 4: NOTIFY VENDORS =====
-            updateStatus("AWAITING_VENDOR_CONFIRMATION");
-            notificationActivities.notifyVendors(input);
-            for (Long vendorId : input.vendorIds()) {
-                saga.addCompensation(
-                        () -> notificationActivities.notifyVendorCancellation(input.orderId(), vendorId,
-                                "Order cancelled"));
-            }
-            addTimelineEvent("VENDORS_NOTIFIED", "COMPLETED");
-
-            // Wait for vendor confirmation with timeout
-            boolean confirmed = Workflow.await(VENDOR_CONFIRMATION_TIMEOUT,
-                    () -> vendorConfirmed || vendorRejected || cancelRequested);
-
-            if (cancelRequested) {
-                throw new RuntimeException("Order cancelled: " + cancellationReason);
-            }
+    private record VendorSignal(Long vendorId, Consumer<VendorOrderWorkflow> send) {
+    }
 
-            if (!confirmed || vendorRejected) {
-                updateStatus("CANCELLED");
-                addTimelineEvent("VENDOR_TIMEOUT_OR_REJECTED", "FAILED");
-                throw new RuntimeException("Vendor did not confirm within timeout or rejected the order");
-            }
+    public OrderWorkflowImpl() {
+        this(Duration.ofMinutes(15), Duration.ofHours(4), 10_000, 10L * 1024 * 1024, 50,
+                OrderProgressListener.NONE);
+    }
 
-            // ===== STEP 5: VENDOR PREPARING =====
-            updateStatus("VENDOR_PREPARING");
-            addTimelineEvent("VENDOR_CONFIRMED", "COMPLETED");
+    public OrderWorkflowImpl(Duration vendorConfirmationTimeout, Duration deliveryCompletionTimeout,
+                             int maxHistoryEvents, long maxHistoryBytes, int maxTimelineEntries,
+                             OrderProgressListener progress) {
+        this.vendorConfirmationTimeout = vendorConfirmationTimeout;
+        this.deliveryCompletionTimeout = deliveryCompletionTimeout;
+        this.maxHistoryEvents = maxHistoryEvents;
+        this.maxHistoryBytes = maxHistoryBytes;
+        this.timeline = OrderTimeline.empty(maxTimelineEntries);
+        this.progress = progress;
+    }
 
-            // Calculate ETA based on vendor prep time
-            if (vendorPrepTime != null) {
-                estimatedDeliveryTime = Workflow.currentTimeMillis() > 0
-                        ? LocalDateTime.now().plusMinutes(vendorPrepTime + 30) // prep + delivery estimate
-                        : null;
-            }
+    // ============== MAIN WORKFLOW ==============
+    @Override
+    public OrderWorkflowOutput processOrder(CreateOrderRequest request, OrderWorkflowState resumeFrom) {
+        Saga saga = new Saga(new Saga.Options.Builder().setParallelCompensation(false).build());
 
-            // Wait for vendor ready signal
-            Workflow.await(() -> vendorReady || cancelRequested);
+        if (resumeFrom == null) {
+            log.info("Starting OrderWorkflow for customerId: {}", request.customerId());
+            addTimelineEvent(TimelineEventType.WORKFLOW_STARTED, TimelineStatus.COMPLETED);
+        } else {
+            restore(resumeFrom, saga);
+            log.info("OrderWorkflow for orderId: {} continued as new (#{}) in status {}",
+                    input.orderId(), continuations, currentStatus);
+        }
 
-            if (cancelRequested) {
-                throw new RuntimeException("Order cancelled: " + cancellationReason);
+        try {
+            if (resumeFrom == null) {
+                placeOrder(request, saga);
             }
 
-            // ===== STEP 6: ASSIGN DELIVERY =====
-            updateStatus("READY_FOR_PICKUP");
-            addTimelineEvent("ORDER_READY", "COMPLETED");
-
-            deliveryPartnerId = paymentActivities.assignDeliveryPartner(input);
-            saga.addCompensation(() -> paymentActivities.cancelDeliveryAssignment(input.orderId(), deliveryPartnerId));
+            if (currentStatus == OrderWorkflowStatus.DELIVERY_ASSIGNED) {
+                // Wait for pickup
+                awaitDelivery(request, () -> deliveryPickedUp, 0);
 
-            updateStatus("DELIVERY_ASSIGNED");
-            addTimelineEvent("DELIVERY_ASSIGNED", "COMPLETED");
+                if (cancelRequested) {
+                    throw new RuntimeException("Order cancelled: " + cancellationReason);
+                }
 
-            notificationActivities.sendDeliveryNotification(input.orderId(), input.customerId(),
-                    "DELIVERY_ASSIGNED", "A delivery partner has been assigned to your order");
+                // ===== STEP 7: OUT FOR DELIVERY =====
+                updateStatus(OrderWorkflowStatus.OUT_FOR_DELIVERY);
+                addTimelineEvent(TimelineEventType.DELIVERY_PICKED_UP, TimelineStatus.COMPLETED);
+                activities.updateOrderStatus(input.orderId(), "SHIPPED");
 
-            // Wait for pickup
-            Workflow.await(() -> deliveryPickedUp || cancelRequested);
+                activities.sendDeliveryNotification(input.orderId(), input.customerId(),
+                        "OUT_FOR_DELIVERY", "Your order is on the way!");
 
-            if (cancelRequested) {
-                throw new RuntimeException("Order cancelled: " + cancellationReason);
+                deliveryDeadlineMillis = Workflow.currentTimeMillis() + deliveryCompletionTimeout.toMillis();
             }
 
-            // ===== STEP 7: OUT FOR DELIVERY =====
-            updateStatus("OUT_FOR_DELIVERY");
-            addTimelineEvent("DELIVERY_PICKED_UP", "COMPLETED");
-            standardActivities.updateOrderStatus(input.orderId(), "SHIPPED");
-
-            notificationActivities.sendDeliveryNotification(input.orderId(), input.customerId(),
-                    "OUT_FOR_DELIVERY", "Your order is on the way!");
-
             // Wait for delivery completion with timeout
-            boolean delivered = Workflow.await(DELIVERY_COMPLETION_TIMEOUT,
-                    () -> deliveryCompleted || cancelRequested);
+            boolean delivered = awaitDelivery(request, () -> deliveryCompleted, deliveryDeadlineMillis);
 
             if (cancelRequested) {
                 throw new RuntimeException("Order cancelled: " + cancellationReason);
@@ -290,53 +178,63 @@ public class OrderWorkflowImpl implements OrderWorkflow {
             }
 
             // ===== STEP 8: DELIVERED =====
-            updateStatus("DELIVERED");
-            addTimelineEvent("DELIVERED", "COMPLETED");
+            updateStatus(OrderWorkflowStatus.DELIVERED);
+            addTimelineEvent(TimelineEventType.DELIVERED, TimelineStatus.COMPLETED);
 
             if (deliveryProofUrl != null) {
-                standardActivities.captureDeliveryProof(input.orderId(), deliveryProofUrl, deliverySignature);
+                activities.captureDeliveryProof(input.orderId(), deliveryProofUrl, deliverySignature);
             }
 
-            standardActivities.updateOrderStatus(input.orderId(), "DELIVERED");
+            activities.updateOrderStatus(input.orderId(), "DELIVERED");
 
-            notificationActivities.sendDeliveryNotification(input.orderId(), input.customerId(),
+            activities.sendDeliveryNotification(input.orderId(), input.customerId(),
                     "DELIVERED", "Your order has been delivered. Thank you!");
 
             // ===== STEP 9: COMPLETE =====
-            updateStatus("COMPLETED");
-            addTimelineEvent("WORKFLOW_COMPLETED", "COMPLETED");
+            updateStatus(OrderWorkflowStatus.COMPLETED);
+            addTimelineEvent(TimelineEventType.WORKFLOW_COMPLETED, TimelineStatus.COMPLETED);
 
             // Trigger review request
-            notificationActivities.triggerReviewRequest(input.orderId(), input.customerId());
+            activities.triggerReviewRequest(input.orderId(), input.customerId());
 
             log.info("OrderWorkflow completed for orderId: {}", input.orderId());
 
-            return new OrderWorkflowOutput(
-                    input.orderId(),
-                    "COMPLETED",
-                    LocalDateTime.now(),
-                    deliveryProofUrl,
-                    input.totalAmount(),
-                    issues);
+            return completedOutput();
 
+        } catch (InvalidTransitionException e) {
+            // A bug, not a business failure: fail the workflow task (retried until fixed) and
+            // leave payment, stock and vendors as they are
+            throw e;
         } catch (Exception e) {
+            if (currentStatus.isFinal()) {
+                // Failed after completion (review request): the order itself stands
+                log.warn("OrderWorkflow for orderId: {} failed after completion: {}", input.orderId(), e.getMessage());
+                issues.add("Post-completion step failed: " + e.getMessage());
+                return completedOutput();
+            }
+
             Long failedId = (input != null) ? input.orderId() : null;
             log.error("OrderWorkflow failed for orderId: {}, error: {}", failedId != null ? failedId : "?",
                     e.getMessage());
 
+            cancelVendorOrders(e.getMessage());
+
             // Execute saga compensation
             saga.compensate();
 
             // Update status
-            String finalStatus = cancelRequested ? "CANCELLED" : "FAILED";
+            OrderWorkflowStatus finalStatus = cancelRequested
+                    ? OrderWorkflowStatus.CANCELLED
+                    : OrderWorkflowStatus.FAILED;
             updateStatus(finalStatus);
-            addTimelineEvent("WORKFLOW_" + finalStatus, "FAILED");
+            addTimelineEvent(cancelRequested ? TimelineEventType.WORKFLOW_CANCELLED
+                    : TimelineEventType.WORKFLOW_FAILED, TimelineStatus.FAILED, e.getMessage());
 
             try {
                 if (failedId != null) {
-                    standardActivities.updateOrderStatus(failedId, finalStatus);
-                    notificationActivities.sendDeliveryNotification(failedId, input.customerId(), finalStatus,
-                            "Your order has been " + finalStatus.toLowerCase() + ". Reason: " + e.getMessage());
+                    activities.updateOrderStatus(failedId, finalStatus.name());
+                    activities.sendDeliveryNotification(failedId, input.customerId(), finalStatus.name(),
+                            "Your order has been " + finalStatus.name().toLowerCase() + ". Reason: " + e.getMessage());
                 }
             } catch (Exception notifyError) {
                 log.warn("Failed to send cancellation notification: {}", notifyError.getMessage());
@@ -344,31 +242,145 @@ public class OrderWorkflowImpl implements OrderWorkflow {
 
             return new OrderWorkflowOutput(
                     failedId,
-                    finalStatus,
-                    LocalDateTime.now(),
+                    finalStatus.name(),
+                    WorkflowTime.now(),
                     null,
                     (input != null) ? input.totalAmount() : request.totalAmount(),
                     List.of(e.getMessage()));
         }
     }
 
+    /**
+     * Steps 1 to 6: from order creation until a delivery partner is assigned.
+     */
+    private void placeOrder(CreateOrderRequest request, Saga saga) {
+        // ===== STEP 1: CREATE ORDER =====
+        updateStatus(OrderWorkflowStatus.CREATING);
+        OrderSnapshot created = activities.createOrder(request);
+        // Known from here on, so a failed vendor lookup still marks the order as failed
+        this.input = toWorkflowInput(request, created);
+        OrderSnapshot order = activities.resolveVendors(created);
+        Long orderId = order.orderId();
+
+        // The snapshot (lines, amounts) travels with the input so later
+        // activities do not fetch the order from order-service again
+        this.input = toWorkflowInput(request, order);
+
+        log.info("Order created with ID: {}", orderId);
+        addTimelineEvent(TimelineEventType.ORDER_CREATED, TimelineStatus.COMPLETED);
+
+        checkCancellation();
+
+        // ===== STEP 2: PROCESS PAYMENT =====
+        updateStatus(OrderWorkflowStatus.PAYMENT_PROCESSING);
+        PaymentResult paymentResult = activities.processPayment(input);
+
+        if (!paymentResult.success()) {
+            updateStatus(OrderWorkflowStatus.PAYMENT_FAILED);
+            addTimelineEvent(TimelineEventType.PAYMENT_FAILED, TimelineStatus.FAILED);
+            throw new RuntimeException("Payment failed: " + paymentResult.errorMessage());
+        }
+
+        paymentTransactionId = paymentResult.transactionId();
+        paymentId = paymentResult.paymentId();
+        addPaymentCompensation(saga);
+        addTimelineEvent(TimelineEventType.PAYMENT_PROCESSED, TimelineStatus.COMPLETED);
+
+        checkCancellation();
+
+        // ===== STEP 3: RESERVE INVENTORY =====
+        updateStatus(OrderWorkflowStatus.INVENTORY_RESERVED);
+        InventoryReservation reservation = activities.reserveInventory(input);
+        reservedLines = reservation.reserved();
+        addInventoryCompensation(saga);
+        if (!reservation.unconfirmed().isEmpty()) {
+            // May or may not be reserved; the order fails below, so this is never snapshotted
+            List<OrderLine> unconfirmed = reservation.unconfirmed();
+            saga.addCompensation(() -> {
+                List<OrderLine> confirmed = activities.confirmReservation(input.orderId(), unconfirmed);
+                if (!confirmed.isEmpty()) {
+                    activities.releaseInventory(input.orderId(), confirmed);
+                }
+            });
+        }
+        if (reservation.hasFailures()) {
+            addTimelineEvent(TimelineEventType.INVENTORY_UNAVAILABLE, TimelineStatus.FAILED);
+            throw new RuntimeException("Could not reserve stock for products: "
+                    + reservation.failed().stream().map(OrderLine::productId).toList()
+                    + (reservation.unconfirmed().isEmpty() ? "" : ", unconfirmed: "
+                    + reservation.unconfirmed().stream().map(OrderLine::productId).toList()));
+        }
+        addTimelineEvent(TimelineEventType.INVENTORY_RESERVED, TimelineStatus.COMPLETED);
+
+        checkCancellation();
+
+        // ===== STEP 4: NOTIFY VENDORS =====
+        updateStatus(OrderWorkflowStatus.AWAITING_VENDOR_CONFIRMATION);
+        VendorNotificationResult notification = activities.notifyVendors(input);
+        notifiedVendorIds = notification.notified();
+        addVendorCompensations(saga);
+        if (!notification.failed().isEmpty()) {
+            // Their lines would never be prepared; the notified vendors get cancellation notices
+            addTimelineEvent(TimelineEventType.VENDOR_NOTIFICATION_FAILED, TimelineStatus.FAILED);
+            throw new RuntimeException("Vendors could not be notified of the order: " + notification.failed());
+        }
+        addTimelineEvent(TimelineEventType.VENDORS_NOTIFIED, TimelineStatus.COMPLETED);
+
+        // One child per vendor, each with its own confirmation timeout
+        startVendorOrders(notification.notified());
+
+        Workflow.await(() -> confirmedVendors.containsAll(vendorResults.keySet())
+                || vendorFailure() != null || cancelRequested);
+        checkVendorOrders();
+
+        // ===== STEP 5: VENDOR PREPARING =====
+        updateStatus(OrderWorkflowStatus.VENDOR_PREPARING);
+        addTimelineEvent(TimelineEventType.VENDOR_CONFIRMED, TimelineStatus.COMPLETED);
+
+        // Calculate ETA from the slowest vendor's prep time
+        Integer vendorPrepTime = vendorPrepTimes.values().stream()
+                .filter(minutes -> minutes != null)
+                .max(Integer::compare)
+                .orElse(null);
+        if (vendorPrepTime != null) {
+            estimatedDeliveryTime = WorkflowTime.now().plusMinutes(vendorPrepTime + 30); // prep + delivery estimate
+        }
+
+        // Wait for every vendor to be ready
+        Workflow.await(() -> vendorResults.values().stream().allMatch(Promise::isCompleted)
+                || vendorFailure() != null || cancelRequested);
+        checkVendorOrders();
+
+        // ===== STEP 6: ASSIGN DELIVERY =====
+        updateStatus(OrderWorkflowStatus.READY_FOR_PICKUP);
+        addTimelineEvent(TimelineEventType.ORDER_READY, TimelineStatus.COMPLETED);
+
+        deliveryPartnerId = activities.assignDeliveryPartner(input);
+        addDeliveryCompensation(saga);
+
+        updateStatus(OrderWorkflowStatus.DELIVERY_ASSIGNED);
+        addTimelineEvent(TimelineEventType.DELIVERY_ASSIGNED, TimelineStatus.COMPLETED);
+
+        activities.sendDeliveryNotification(input.orderId(), input.customerId(),
+                "DELIVERY_ASSIGNED", "A delivery partner has been assigned to your order");
+    }
+
     // ============== SIGNALS ==============
 
     @Override
     public void vendorConfirmed(Long vendorId, boolean confirmed, Integer prepTimeMinutes, String notes) {
         log.info("Vendor {} confirmation: {}, prepTime: {}", vendorId, confirmed, prepTimeMinutes);
         if (confirmed) {
-            this.vendorConfirmed = true;
-            this.vendorPrepTime = prepTimeMinutes;
-        } else {
-            this.vendorRejected = true;
+            confirmedVendors.add(vendorId);
+            vendorPrepTimes.put(vendorId, prepTimeMinutes);
         }
+        vendorSignals.offer(new VendorSignal(vendorId, child -> child.confirmed(confirmed, prepTimeMinutes, notes)));
     }
 
     @Override
     public void vendorReady(Long vendorId) {
         log.info("Vendor {} marked order as ready", vendorId);
-        this.vendorReady = true;
+        vendorSignals.offer(new VendorSignal(vendorId, VendorOrderWorkflow::ready));
     }
 
     @Override
@@ -402,13 +414,18 @@ public class OrderWorkflowImpl implements OrderWorkflow {
     // ============== QUERIES ==============
 
     @Override
-    public String getStatus() {
+    public OrderWorkflowStatus getStatus() {
         return currentStatus;
     }
 
     @Override
-    public List<TimelineEvent> getTimeline() {
-        return new ArrayList<>(timeline);
+    public Long getOrderId() {
+        return input != null ? input.orderId() : null;
+    }
+
+    @Override
+    public OrderTimeline getTimeline() {
+        return timeline;
     }
 
     @Override
@@ -418,14 +435,273 @@ public class OrderWorkflowImpl implements OrderWorkflow {
 
     // ============== HELPERS ==============
 
-    private void updateStatus(String status) {
+    /**
+     * Waits for a delivery milestone or a cancellation; deadlineMillis 0 waits without limit.
+     * Continues as new when the history outgrows its limits first.
+     *
+     * @return false when the deadline passed
+     */
+    private boolean awaitDelivery(CreateOrderRequest request, Supplier<Boolean> milestone, long deadlineMillis) {
+        Supplier<Boolean> wakeUp = () -> milestone.get() || cancelRequested || historyTooLarge();
+        boolean inTime = true;
+        if (deadlineMillis > 0) {
+            long remaining = Math.max(1, deadlineMillis - Workflow.currentTimeMillis());
+            inTime = Workflow.await(Duration.ofMillis(remaining), wakeUp);
+        } else {
+            Workflow.await(wakeUp);
+        }
+        if (inTime && !milestone.get() && !cancelRequested) {
+            WorkflowInfo info = Workflow.getInfo();
+            log.info("Order {} history at {} events / {} bytes, continuing as new", input.orderId(),
+                    info.getHistoryLength(), info.getHistorySize());
+            Workflow.continueAsNew(request, snapshot());
+        }
+        return inTime;
+    }
+
+    private boolean historyTooLarge() {
+        WorkflowInfo info = Workflow.getInfo();
+        return info.getHistoryLength() >= maxHistoryEvents
+                || info.getHistorySize() >= maxHistoryBytes
+                || info.isContinueAsNewSuggested();
+    }
+
+    private OrderWorkflowState snapshot() {
+        return new OrderWorkflowState(
+                input,
+                currentStatus,
+                timeline,
+                estimatedDeliveryTime,
+                issues,
+                new OrderWorkflowState.Compensations(paymentId, paymentTransactionId, reservedLines,
+                        notifiedVendorIds, deliveryPartnerId),
+                deliveryPickedUp,
+                deliveryCompleted,
+                deliveryProofUrl,
+                deliverySignature,
+                cancelRequested,
+                cancellationReason,
+                refundRequested,
+                deliveryDeadlineMillis,
+                continuations + 1);
+    }
+
+    private void restore(OrderWorkflowState state, Saga saga) {
+        input = state.input();
+        currentStatus = state.status();
+        timeline = state.timeline();
+        estimatedDeliveryTime = state.estimatedDeliveryTime();
+        issues.addAll(state.issues());
+        deliveryPickedUp |= state.deliveryPickedUp();
+        deliveryCompleted |= state.deliveryCompleted();
+        if (deliveryProofUrl == null) {
+            deliveryProofUrl = state.deliveryProofUrl();
+            deliverySignature = state.deliverySignature();
+        }
+        if (state.cancelRequested()) {
+            cancelRequested = true;
+            cancellationReason = state.cancellationReason();
+            refundRequested = state.refundRequested();
+        }
+        deliveryDeadlineMillis = state.deliveryDeadlineMillis();
+        continuations = state.continuations();
+
+        // Re-register the compensations in their original order
+        OrderWorkflowState.Compensations compensations = state.compensations();
+        paymentId = compensations.paymentId();
+        paymentTransactionId = compensations.paymentTransactionId();
+        if (paymentId != null || paymentTransactionId != null) {
+            addPaymentCompensation(saga);
+        }
+        reservedLines = compensations.reservedLines();
+        if (reservedLines != null) {
+            addInventoryCompensation(saga);
+        }
+        notifiedVendorIds = compensations.notifiedVendorIds();
+        addVendorCompensations(saga);
+        deliveryPartnerId = compensations.deliveryPartnerId();
+        if (deliveryPartnerId != null) {
+            addDeliveryCompensation(saga);
+        }
+    }
+
+    private void addPaymentCompensation(Saga saga) {
+        saga.addCompensation(() -> activities.refundPayment(input.orderId(), paymentId, paymentTransactionId,
+                input.totalAmount()));
+    }
+
+    private void addInventoryCompensation(Saga saga) {
+        saga.addCompensation(() -> activities.releaseInventory(input.orderId(), reservedLines));
+    }
+
+    private void addVendorCompensations(Saga saga) {
+        for (Long vendorId : notifiedVendorIds) {
+            saga.addCompensation(
+                    () -> activities.notifyVendorCancellation(input.orderId(), vendorId,
+                            "Order cancelled"));
+        }
+    }
+
+    private void addDeliveryCompensation(Saga saga) {
+        saga.addCompensation(() -> activities.cancelDeliveryAssignment(input.orderId(), deliveryPartnerId));
+    }
+
+    private static OrderWorkflowInput toWorkflowInput(CreateOrderRequest request, OrderSnapshot order) {
+        return new OrderWorkflowInput(
+                order.orderId(),
+                request.customerId(),
+                order.vendorIds(),
+                order.totalAmount() != null ? order.totalAmount() : request.totalAmount(),
+                request.paymentMethod(),
+                request.paymentIntentId(),
+                request.paymentGateway(),
+                request.paymentToken(),
+                null, // address is tracked by order-service
+                request.requestedDeliveryDate(),
+                null,
+                request.notes(),
+                order.items());
+    }
+
+    private void startVendorOrders(List<Long> vendorIds) {
+        Async.procedure(this::forwardVendorSignals);
+        String workflowId = Workflow.getInfo().getWorkflowId();
+        for (Long vendorId : vendorIds) {
+            VendorOrderWorkflow child = Workflow.newChildWorkflowStub(VendorOrderWorkflow.class,
+                    ChildWorkflowOptions.newBuilder()
+                            .setWorkflowId(VendorOrderWorkflow.workflowId(workflowId, vendorId))
+                            .build());
+            List<OrderLine> lines = input.items().stream()
+                    .filter(line -> vendorId.equals(line.vendorId()))
+                    .toList();
+            vendorOrders.put(vendorId, child);
+            vendorResults.put(vendorId, Async.function(child::fulfil,
+                    new VendorOrderInput(input.orderId(), vendorId, lines, vendorConfirmationTimeout.getSeconds())));
+        }
+    }
+
+    /**
+     * Runs for the life of the workflow, forwarding vendor signals to the vendor's child
+     * once it has started. Signals of vendors without a child are dropped.
+     */
+    private void forwardVendorSignals() {
+        while (true) {
+            VendorSignal signal = vendorSignals.take();
+            VendorOrderWorkflow child = vendorOrders.get(signal.vendorId());
+            if (child == null) {
+                log.warn("Ignoring signal of vendor {}: not part of this order", signal.vendorId());
+                continue;
+            }
+            try {
+                Workflow.getWorkflowExecution(child).get();
+                signal.send().accept(child);
+            } catch (Exception e) {
+                log.warn("Could not forward signal to vendor {}: {}", signal.vendorId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * First vendor that failed, rejected or timed out; null while none has.
+     */
+    private VendorOrderResult vendorFailure() {
+        for (Map.Entry<Long, Promise<VendorOrderResult>> entry : vendorResults.entrySet()) {
+            Promise<VendorOrderResult> result = entry.getValue();
+            if (!result.isCompleted()) {
+                continue;
+            }
+            if (result.getFailure() != null) {
+                return new VendorOrderResult(entry.getKey(), VendorOrderResult.Outcome.CANCELLED, null,
+                        result.getFailure().getMessage());
+            }
+            if (!result.get().ready()) {
+                return result.get();
+            }
+        }
+        return null;
+    }
+
+    private void checkVendorOrders() {
+        checkCancellation();
+        VendorOrderResult failure = vendorFailure();
+        if (failure != null) {
+            addTimelineEvent(failureEvent(failure.outcome()), TimelineStatus.FAILED);
+            throw new RuntimeException("Vendor " + failure.vendorId() + " did not fulfil the order ("
+                    + failure.outcome() + (failure.notes() != null ? ": " + failure.notes() : "") + ")");
+        }
+    }
+
+    // Exhaustive: a new outcome does not compile until it has its timeline event
+    private static TimelineEventType failureEvent(VendorOrderResult.Outcome outcome) {
+        return switch (outcome) {
+            case REJECTED -> TimelineEventType.VENDOR_REJECTED;
+            case TIMED_OUT -> TimelineEventType.VENDOR_TIMED_OUT;
+            case CANCELLED -> TimelineEventType.VENDOR_CANCELLED;
+            case READY -> throw new IllegalArgumentException("Not a vendor failure: " + outcome);
+        };
+    }
+
+    /**
+     * Tells the children still running that the order is off.
+     */
+    private void cancelVendorOrders(String reason) {
+        vendorResults.forEach((vendorId, result) -> {
+            if (result.isCompleted()) {
+                return;
+            }
+            try {
+                VendorOrderWorkflow child = vendorOrders.get(vendorId);
+                Workflow.getWorkflowExecution(child).get();
+                child.cancel(reason);
+            } catch (Exception e) {
+                log.warn("Could not cancel vendor {} order: {}", vendorId, e.getMessage());
+            }
+        });
+    }
+
+    private OrderWorkflowOutput completedOutput() {
+        return new OrderWorkflowOutput(
+                input.orderId(),
+                OrderWorkflowStatus.COMPLETED.name(),
+                WorkflowTime.now(),
+                deliveryProofUrl,
+                input.totalAmount(),
+                issues);
+    }
+
+    private void updateStatus(OrderWorkflowStatus status) {
+        if (!currentStatus.canTransitionTo(status)) {
+            throw new InvalidTransitionException(currentStatus, status);
+        }
         this.currentStatus = status;
         Long oid = (input != null) ? input.orderId() : null;
         log.info("Order {} status: {}", oid != null ? oid : "?", status);
+        publishProgress(status, null);
+    }
+
+    private void addTimelineEvent(TimelineEventType event, TimelineStatus status) {
+        addTimelineEvent(event, status, null);
+    }
+
+    private void addTimelineEvent(TimelineEventType event, TimelineStatus status, String details) {
+        timeline = timeline.append(event, status, Workflow.currentTimeMillis(), details);
+        publishProgress(null, timeline.event(timeline.size() - 1));
     }
 
-    private void addTimelineEvent(String event, String status) {
-        timeline.add(new TimelineEvent(event, status, LocalDateTime.now(), null));
+    /**
+     * Published once, when the transition first runs: a replay (cache eviction, another
+     * worker) does not publish again, and the read model falls back to a query on the gap.
+     */
+    private void publishProgress(OrderWorkflowStatus status, TimelineEvent event) {
+        if (WorkflowUnsafe.isReplaying()) {
+            return;
+        }
+        try {
+            progress.publishProgress(Workflow.getInfo().getWorkflowId(), input != null ? input.orderId() : null,
+                    status, event, timeline.totalCount());
+        } catch (Exception e) {
+            log.warn("Failed to publish progress: {}", e.getMessage());
+        }
     }
 
     private void checkCancellation() {
@@ -433,4 +709,14 @@ public class OrderWorkflowImpl implements OrderWorkflow {
             throw new RuntimeException("Order cancelled by customer: " + cancellationReason);
         }
     }
+
+    /**
+     * Workflow code asked for a transition the status table does not allow.
+     */
+    static final class InvalidTransitionException extends IllegalStateException {
+
+        InvalidTransitionException(OrderWorkflowStatus from, OrderWorkflowStatus to) {
+            super("Invalid status transition " + from + " -> " + to);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.soukconect.bpm.order.workflow;
+
+import com.soukconect.bpm.common.dto.VendorOrderInput;
+import com.soukconect.bpm.common.dto.VendorOrderResult;
+import com.soukconect.bpm.common.dto.VendorOrderResult.Outcome;
+import com.soukconect.bpm.common.workflow.VendorOrderWorkflow;
+import io.temporal.workflow.Workflow;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+/**
+ * Implementation of VendorOrderWorkflow: waits for one vendor to confirm (with its
+ * own timeout) and then to mark its part of the order ready.
+ */
+public class VendorOrderWorkflowImpl implements VendorOrderWorkflow {
+
+    private static final Logger log = Workflow.getLogger(VendorOrderWorkflowImpl.class);
+
+    private String status = "AWAITING_CONFIRMATION";
+
+    // Signal state
+    private Boolean confirmed;
+    private Integer prepTimeMinutes;
+    private String notes;
+    private boolean ready = false;
+    private String cancellationReason;
+
+    @Override
+    public VendorOrderResult fulfil(VendorOrderInput input) {
+        log.info("Vendor {} handling order {} ({} lines)", input.vendorId(), input.orderId(), input.lines().size());
+
+        boolean decided = Workflow.await(Duration.ofSeconds(input.confirmationTimeoutSeconds()),
+                () -> confirmed != null || cancellationReason != null);
+
+        if (cancellationReason != null) {
+            return finish(input, Outcome.CANCELLED);
+        }
+        if (!decided) {
+            return finish(input, Outcome.TIMED_OUT);
+        }
+        if (!confirmed) {
+            return finish(input, Outcome.REJECTED);
+        }
+
+        status = "PREPARING";
+        Workflow.await(() -> ready || cancellationReason != null);
+
+        return finish(input, cancellationReason != null ? Outcome.CANCELLED : Outcome.READY);
+    }
+
+    private VendorOrderResult finish(VendorOrderInput input, Outcome outcome) {
+        status = outcome.name();
+        log.info("Vendor {} order {}: {}", input.vendorId(), input.orderId(), outcome);
+        return new VendorOrderResult(input.vendorId(), outcome, prepTimeMinutes, notes);
+    }
+
+    // ============== SIGNALS ==============
+
+    @Override
+    public void confirmed(boolean confirmed, Integer prepTimeMinutes, String notes) {
+        this.confirmed = confirmed;
+        this.prepTimeMinutes = prepTimeMinutes;
+        this.notes = notes;
+    }
+
+    @Override
+    public void ready() {
+        this.ready = true;
+    }
+
+    @Override
+    public void cancel(String reason) {
+        this.cancellationReason = reason != null ? reason : "cancelled";
+    }
+
+    // ============== QUERIES ==============
+
+    @Override
+    public String getStatus() {
+        return status;
+    }
+}
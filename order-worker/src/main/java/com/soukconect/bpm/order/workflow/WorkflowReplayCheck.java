@@ -0,0 +1,105 @@
+package com.soukconect.bpm.order.workflow;
+
+import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.filter.v1.WorkflowTypeFilter;
+import io.temporal.api.workflowservice.v1.ListClosedWorkflowExecutionsRequest;
+import io.temporal.api.workflowservice.v1.ListOpenWorkflowExecutionsRequest;
+import io.temporal.api.workflowservice.v1.WorkflowServiceGrpc;
+import io.temporal.client.WorkflowClient;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Replays the recorded histories of the most recent OrderWorkflow executions against the
+ * workflow code of this build, before the worker takes any task. A change that would not
+ * replay (nondeterministic code, reordered commands) fails the start instead of breaking
+ * running orders, and evicted runs can be rebuilt from history safely, so the sticky cache
+ * can stay small. Disabled when workflow.replay-check.executions is 0.
+ */
+@Component
+public class WorkflowReplayCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowReplayCheck.class);
+
+    private final WorkflowClient client;
+    private final int executions;
+
+    public WorkflowReplayCheck(
+            @Qualifier("workerWorkflowClient") WorkflowClient client,
+            @Value("${workflow.replay-check.executions:0}") int executions) {
+        this.client = client;
+        this.executions = executions;
+    }
+
+    /**
+     * @param registration registers the workflow implementations, as on the real worker
+     * @throws IllegalStateException when a history does not replay
+     */
+    public void verify(Consumer<Worker> registration) {
+        if (executions <= 0) {
+            return;
+        }
+
+        // Never started: the worker only serves replays, it does not poll
+        WorkerFactory factory = WorkerFactory.newInstance(client);
+        Worker worker = factory.newWorker(OrderWorkflow.TASK_QUEUE + "-replay");
+        registration.accept(worker);
+
+        List<String> failures = new ArrayList<>();
+        int replayed = 0;
+        try {
+            for (WorkflowExecution execution : recentExecutions()) {
+                String workflowId = execution.getWorkflowId();
+                String runId = execution.getRunId();
+                try {
+                    worker.replayWorkflowExecution(client.fetchHistory(workflowId, runId));
+                    replayed++;
+                } catch (Exception e) {
+                    log.error("Replay of {} (run {}) failed", workflowId, runId, e);
+                    failures.add(workflowId + "/" + runId);
+                }
+            }
+        } finally {
+            factory.shutdownNow();
+        }
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Workflow histories do not replay with this build: " + failures);
+        }
+        log.info("Replayed {} recent OrderWorkflow histories", replayed);
+    }
+
+    /**
+     * Running executions first (they are the ones this build will resume), then closed ones.
+     * Uses the open/closed list calls, which every visibility store serves.
+     */
+    private List<WorkflowExecution> recentExecutions() {
+        WorkflowServiceGrpc.WorkflowServiceBlockingStub service = client.getWorkflowServiceStubs().blockingStub();
+        String namespace = client.getOptions().getNamespace();
+        WorkflowTypeFilter type = WorkflowTypeFilter.newBuilder().setName("OrderWorkflow").build();
+
+        List<WorkflowExecution> recent = new ArrayList<>();
+        service.listOpenWorkflowExecutions(ListOpenWorkflowExecutionsRequest.newBuilder()
+                        .setNamespace(namespace).setTypeFilter(type).setMaximumPageSize(executions).build())
+                .getExecutionsList()
+                .forEach(info -> recent.add(info.getExecution()));
+        if (recent.size() < executions) {
+            service.listClosedWorkflowExecutions(ListClosedWorkflowExecutionsRequest.newBuilder()
+                            .setNamespace(namespace).setTypeFilter(type)
+                            .setMaximumPageSize(executions - recent.size()).build())
+                    .getExecutionsList()
+                    .forEach(info -> recent.add(info.getExecution()));
+        }
+        return recent.subList(0, Math.min(executions, recent.size()));
+    }
+}
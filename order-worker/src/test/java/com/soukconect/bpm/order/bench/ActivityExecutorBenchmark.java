@@ -0,0 +1,159 @@
+package com.soukconect.bpm.order.bench;
+
+import ch.qos.logback.classic.Level;
+import io.temporal.activity.ActivityInterface;
+import io.temporal.activity.ActivityMethod;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.Promise;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares activity throughput and memory for the default platform-thread activity
+ * executor versus virtual threads (temporal.worker.virtual-threads.enabled).
+ *
+ * Each activity simulates a blocking downstream call, like notifyVendors or processPayment.
+ * Runs against the in-memory Temporal test server; not part of the unit test run.
+ *
+ * Usage (virtual mode needs Java 21):
+ * <pre>
+ * mvn -pl order-worker test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp order-worker/target/test-classes:$(cat order-worker/target/cp.txt) \
+ *     com.soukconect.bpm.order.bench.ActivityExecutorBenchmark [workflows] [activitiesPerWorkflow] [ioMillis]
+ * </pre>
+ */
+public class ActivityExecutorBenchmark {
+
+    private static final String TASK_QUEUE = "activity-executor-bench";
+
+    @ActivityInterface
+    public interface BlockingIoActivities {
+        @ActivityMethod
+        void call(int ioMillis);
+    }
+
+    public static class BlockingIoActivitiesImpl implements BlockingIoActivities {
+        @Override
+        public void call(int ioMillis) {
+            try {
+                Thread.sleep(ioMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @WorkflowInterface
+    public interface FanOutWorkflow {
+        @WorkflowMethod
+        void run(int activities, int ioMillis);
+    }
+
+    public static class FanOutWorkflowImpl implements FanOutWorkflow {
+        private final BlockingIoActivities activities = Workflow.newActivityStub(
+                BlockingIoActivities.class,
+                ActivityOptions.newBuilder().setStartToCloseTimeout(Duration.ofMinutes(5)).build());
+
+        @Override
+        public void run(int count, int ioMillis) {
+            List<Promise<Void>> calls = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                calls.add(Async.procedure(activities::call, ioMillis));
+            }
+            Promise.allOf(calls).get();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int workflows = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int activitiesPerWorkflow = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int ioMillis = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        // Per-task SDK logging would dominate the measurement
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        System.out.printf("Java %d, %d workflows x %d activities, %d ms simulated I/O%n",
+                Runtime.version().feature(), workflows, activitiesPerWorkflow, ioMillis);
+
+        // Current executor: default WorkerOptions (bounded platform-thread pool)
+        run("platform", WorkerOptions.getDefaultInstance(), workflows, activitiesPerWorkflow, ioMillis);
+
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", WorkerOptions.newBuilder()
+                    .setUsingVirtualThreadsOnActivityWorker(true)
+                    .setMaxConcurrentActivityExecutionSize(workflows * activitiesPerWorkflow)
+                    .build(), workflows, activitiesPerWorkflow, ioMillis);
+        } else {
+            System.out.println("virtual: skipped (requires Java 21)");
+        }
+    }
+
+    private static void run(String label, WorkerOptions workerOptions,
+                            int workflows, int activitiesPerWorkflow, int ioMillis) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        try (TestWorkflowEnvironment env = TestWorkflowEnvironment.newInstance()) {
+            Worker worker = env.newWorker(TASK_QUEUE, workerOptions);
+            worker.registerWorkflowImplementationTypes(FanOutWorkflowImpl.class);
+            worker.registerActivitiesImplementations(new BlockingIoActivitiesImpl());
+            env.start();
+
+            System.gc();
+            long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+            threads.resetPeakThreadCount();
+
+            AtomicLong peakHeap = new AtomicLong(baselineHeap);
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(
+                    () -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                    0, 20, TimeUnit.MILLISECONDS);
+
+            WorkflowClient client = env.getWorkflowClient();
+            long start = System.nanoTime();
+
+            List<WorkflowStub> stubs = new ArrayList<>();
+            for (int i = 0; i < workflows; i++) {
+                WorkflowStub stub = client.newUntypedWorkflowStub("FanOutWorkflow",
+                        WorkflowOptions.newBuilder()
+                                .setTaskQueue(TASK_QUEUE)
+                                .setWorkflowId(label + "-" + i)
+                                .build());
+                stub.start(activitiesPerWorkflow, ioMillis);
+                stubs.add(stub);
+            }
+            for (WorkflowStub stub : stubs) {
+                stub.getResult(Void.class);
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            sampler.shutdownNow();
+
+            int total = workflows * activitiesPerWorkflow;
+            System.out.printf("%-8s %6d activities in %6.2f s = %8.1f activities/s, peak threads %5d, peak heap +%d MB%n",
+                    label, total, seconds, total / seconds, threads.getPeakThreadCount(),
+                    (peakHeap.get() - baselineHeap) / (1024 * 1024));
+        }
+    }
+}
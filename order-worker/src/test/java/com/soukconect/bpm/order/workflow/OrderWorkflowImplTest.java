@@ -0,0 +1,166 @@
+package com.soukconect.bpm.order.workflow;
+
+import com.soukconect.bpm.common.activity.OrderActivities;
+import com.soukconect.bpm.common.dto.CreateOrderRequest;
+import com.soukconect.bpm.common.dto.InventoryReservation;
+import com.soukconect.bpm.common.dto.OrderLine;
+import com.soukconect.bpm.common.dto.OrderSnapshot;
+import com.soukconect.bpm.common.dto.OrderWorkflowOutput;
+import com.soukconect.bpm.common.dto.OrderWorkflowStatus;
+import com.soukconect.bpm.common.dto.PaymentResult;
+import com.soukconect.bpm.common.dto.VendorNotificationResult;
+import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.common.RetryOptions;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Runs OrderWorkflow (with its vendor children) on the in-memory test server against
+ * mocked activities: one order of one line from vendor 500.
+ */
+class OrderWorkflowImplTest {
+
+    private static final long ORDER_ID = 1001L;
+    private static final long VENDOR_ID = 500L;
+    private static final OrderLine LINE = new OrderLine(10L, 1, BigDecimal.TEN, VENDOR_ID);
+
+    private TestWorkflowEnvironment env;
+    private OrderActivities activities;
+    private WorkflowClient client;
+
+    @BeforeEach
+    void setUp() {
+        env = TestWorkflowEnvironment.newInstance();
+        Worker worker = env.newWorker(OrderWorkflow.TASK_QUEUE);
+        worker.registerWorkflowImplementationTypes(
+                WorkflowImplementationOptions.newBuilder()
+                        .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                                .setStartToCloseTimeout(Duration.ofSeconds(10))
+                                .setRetryOptions(RetryOptions.newBuilder().setMaximumAttempts(1).build())
+                                .build())
+                        .build(),
+                OrderWorkflowImpl.class, VendorOrderWorkflowImpl.class);
+
+        activities = mock(OrderActivities.class, withSettings().withoutAnnotations());
+        OrderSnapshot created = new OrderSnapshot(ORDER_ID, 1L, BigDecimal.TEN, List.of(LINE.withVendor(null)));
+        when(activities.createOrder(any())).thenReturn(created);
+        when(activities.resolveVendors(any())).thenReturn(
+                new OrderSnapshot(ORDER_ID, 1L, BigDecimal.TEN, List.of(LINE)));
+        when(activities.processPayment(any())).thenReturn(PaymentResult.success(77L, "tx-1"));
+        when(activities.reserveInventory(any())).thenReturn(new InventoryReservation(List.of(LINE), List.of(), List.of()));
+        when(activities.notifyVendors(any())).thenReturn(new VendorNotificationResult(List.of(VENDOR_ID), List.of()));
+        when(activities.assignDeliveryPartner(any())).thenReturn(900L);
+        worker.registerActivitiesImplementations(activities);
+
+        env.start();
+        client = env.getWorkflowClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        env.close();
+    }
+
+    @Test
+    void failedReviewRequestLeavesCompletedOrderAlone() {
+        doThrow(ApplicationFailure.newNonRetryableFailure("customer-service down", "Unavailable"))
+                .when(activities).triggerReviewRequest(anyLong(), anyLong());
+
+        OrderWorkflow workflow = start("order-review-failure");
+        workflow.vendorConfirmed(VENDOR_ID, true, 10, null);
+        workflow.vendorReady(VENDOR_ID);
+        workflow.deliveryPickedUp(900L, LocalDateTime.now());
+        workflow.deliveryCompleted("http://proof", "sig");
+
+        OrderWorkflowOutput output = WorkflowStub.fromTyped(workflow).getResult(OrderWorkflowOutput.class);
+
+        assertEquals(OrderWorkflowStatus.COMPLETED.name(), output.finalStatus());
+        assertEquals("http://proof", output.deliveryProofUrl());
+        assertTrue(output.issues().stream().anyMatch(issue -> issue.contains("TriggerReviewRequest")));
+        verify(activities, never()).refundPayment(anyLong(), any(), any(), any());
+        verify(activities, never()).releaseInventory(anyLong(), any());
+        verify(activities, never()).notifyVendorCancellation(anyLong(), anyLong(), anyString());
+        verify(activities, never()).cancelDeliveryAssignment(anyLong(), anyLong());
+        verify(activities, never()).updateOrderStatus(ORDER_ID, OrderWorkflowStatus.FAILED.name());
+    }
+
+    @Test
+    void cancellationBeforePickupCompensates() {
+        OrderWorkflow workflow = start("order-cancelled");
+        workflow.vendorConfirmed(VENDOR_ID, true, 10, null);
+        workflow.vendorReady(VENDOR_ID);
+
+        while (workflow.getStatus() != OrderWorkflowStatus.DELIVERY_ASSIGNED) {
+            env.sleep(Duration.ofSeconds(1));
+        }
+        workflow.cancelOrder("changed my mind", true);
+
+        OrderWorkflowOutput output = WorkflowStub.fromTyped(workflow).getResult(OrderWorkflowOutput.class);
+
+        assertEquals(OrderWorkflowStatus.CANCELLED.name(), output.finalStatus());
+        verify(activities).cancelDeliveryAssignment(ORDER_ID, 900L);
+        verify(activities).notifyVendorCancellation(eq(ORDER_ID), eq(VENDOR_ID), anyString());
+        verify(activities).releaseInventory(ORDER_ID, List.of(LINE));
+        verify(activities).refundPayment(ORDER_ID, 77L, "tx-1", BigDecimal.TEN);
+        verify(activities).updateOrderStatus(ORDER_ID, OrderWorkflowStatus.CANCELLED.name());
+    }
+
+    @Test
+    void unconfirmedReservationIsConfirmedBeforeRelease() {
+        OrderLine unconfirmed = new OrderLine(11L, 2, BigDecimal.ONE, VENDOR_ID);
+        when(activities.reserveInventory(any()))
+                .thenReturn(new InventoryReservation(List.of(LINE), List.of(), List.of(unconfirmed)));
+        when(activities.confirmReservation(ORDER_ID, List.of(unconfirmed))).thenReturn(List.of(unconfirmed));
+
+        OrderWorkflow workflow = start("order-unconfirmed-stock");
+        OrderWorkflowOutput output = WorkflowStub.fromTyped(workflow).getResult(OrderWorkflowOutput.class);
+
+        assertEquals(OrderWorkflowStatus.FAILED.name(), output.finalStatus());
+        verify(activities).releaseInventory(ORDER_ID, List.of(LINE));
+        verify(activities).releaseInventory(ORDER_ID, List.of(unconfirmed));
+        verify(activities).refundPayment(ORDER_ID, 77L, "tx-1", BigDecimal.TEN);
+        verify(activities, never()).notifyVendors(any());
+    }
+
+    private OrderWorkflow start(String workflowId) {
+        OrderWorkflow workflow = client.newWorkflowStub(OrderWorkflow.class, WorkflowOptions.newBuilder()
+                .setWorkflowId(workflowId)
+                .setTaskQueue(OrderWorkflow.TASK_QUEUE)
+                .build());
+        WorkflowClient.start(workflow::processOrder, request(), null);
+        return workflow;
+    }
+
+    private static CreateOrderRequest request() {
+        return new CreateOrderRequest(1L, 2L, BigDecimal.TEN, "CARD", null, "STRIPE", null,
+                null, null, null, null, null,
+                List.of(new CreateOrderRequest.OrderItemRequest(10L, 1, BigDecimal.TEN, null, null, null, null)));
+    }
+}
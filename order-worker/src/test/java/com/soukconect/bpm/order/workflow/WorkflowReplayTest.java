@@ -0,0 +1,65 @@
+package com.soukconect.bpm.order.workflow;
+
+import com.soukconect.bpm.common.workflow.OrderWorkflow;
+import com.soukconect.bpm.order.config.ActivityConfig;
+import io.temporal.common.WorkflowExecutionHistory;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.testing.WorkflowReplayer;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Replays recorded histories (src/test/resources/histories) against the current workflow
+ * code. A change that breaks one needs a Workflow.getVersion guard, or running orders of
+ * that kind would fail on their next task. Record a new history whenever a workflow path
+ * changes, with the default registration of the worker:
+ * {@code WorkflowClient.fetchHistory(workflowId).toJson(true)}, listed with its workflow id.
+ */
+class WorkflowReplayTest {
+
+    private TestWorkflowEnvironment env;
+    private Worker worker;
+
+    @BeforeEach
+    void setUp() {
+        // Registered like OrderWorkerApplication; never started, it only serves the replays
+        env = TestWorkflowEnvironment.newInstance();
+        worker = env.newWorker(OrderWorkflow.TASK_QUEUE);
+        ActivityConfig activityConfig = new ActivityConfig();
+        worker.registerWorkflowImplementationTypes(
+                WorkflowImplementationOptions.newBuilder()
+                        .setDefaultActivityOptions(activityConfig.getStandardOptions())
+                        .setActivityOptions(activityConfig.getMethodOptions())
+                        .build(),
+                OrderWorkflowImpl.class);
+        worker.registerWorkflowImplementationTypes(VendorOrderWorkflowImpl.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        env.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // Placed, delivered and completed
+            "order-completed.json, order-flow-hna5dzaac0-xenj14",
+            // Cancelled while awaiting vendor confirmation, compensated
+            "order-cancelled.json, order-flow-hna5e0757c-xenj14",
+            // Second run after continue-as-new during delivery, resumed from the state snapshot
+            "order-continued.json, order-flow-hna5fak4jc-z81ro1",
+            "vendor-order-ready.json, order-flow-hna5dzaac0-xenj14-vendor-500",
+            "vendor-order-cancelled.json, order-flow-hna5e0757c-xenj14-vendor-501"})
+    void replaysRecordedHistory(String history, String workflowId) throws Exception {
+        // The recorded workflow id: vendor children ids are derived from it
+        String json = new String(getClass().getResourceAsStream("/histories/" + history).readAllBytes(),
+                StandardCharsets.UTF_8);
+        WorkflowReplayer.replayWorkflowExecution(WorkflowExecutionHistory.fromJson(json, workflowId), worker);
+    }
+}